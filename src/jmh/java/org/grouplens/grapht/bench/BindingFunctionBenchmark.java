@@ -0,0 +1,80 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.bench;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
+import org.grouplens.grapht.ResolutionException;
+import org.grouplens.grapht.context.ContextMatcher;
+import org.grouplens.grapht.context.ContextPattern;
+import org.grouplens.grapht.reflect.Desire;
+import org.grouplens.grapht.reflect.MockDesire;
+import org.grouplens.grapht.reflect.MockSatisfaction;
+import org.grouplens.grapht.solver.BindRule;
+import org.grouplens.grapht.solver.BindingResult;
+import org.grouplens.grapht.solver.DesireChain;
+import org.grouplens.grapht.solver.InjectionContext;
+import org.grouplens.grapht.solver.MockBindRule;
+import org.grouplens.grapht.solver.RuleBasedBindingFunction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark {@link RuleBasedBindingFunction#bind(InjectionContext, DesireChain)} with many rules.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BindingFunctionBenchmark {
+    @Param({"10", "100"})
+    public int rules;
+
+    private RuleBasedBindingFunction function;
+    private InjectionContext context;
+    private Desire desire;
+
+    @Setup
+    public void setup() {
+        desire = new MockDesire(new MockSatisfaction(Object.class));
+        Desire target = new MockDesire(new MockSatisfaction(String.class));
+        Multimap<ContextMatcher, BindRule> map = ArrayListMultimap.create();
+        for (int i = 0; i < rules; i++) {
+            map.put(SyntheticGraphs.pattern(i % 10), new MockBindRule());
+        }
+        map.put(ContextPattern.any(), new MockBindRule(desire, target));
+        function = new RuleBasedBindingFunction(map);
+        context = SyntheticGraphs.context(8);
+    }
+
+    @Benchmark
+    public BindingResult bind() throws ResolutionException {
+        // a fresh chain, so the rule has not yet been applied to it
+        return function.bind(context, DesireChain.singleton(desire));
+    }
+}
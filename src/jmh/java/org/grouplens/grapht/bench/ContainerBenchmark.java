@@ -0,0 +1,82 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.bench;
+
+import org.grouplens.grapht.CachePolicy;
+import org.grouplens.grapht.Component;
+import org.grouplens.grapht.Dependency;
+import org.grouplens.grapht.InjectionContainer;
+import org.grouplens.grapht.Instantiator;
+import org.grouplens.grapht.ResolutionException;
+import org.grouplens.grapht.graph.DAGNode;
+import org.grouplens.grapht.solver.DependencySolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark {@link InjectionContainer#makeInstantiator(DAGNode)} on a resolved graph.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContainerBenchmark {
+    @Param({"deep", "wide"})
+    public String shape;
+
+    @Param({"50"})
+    public int size;
+
+    private DAGNode<Component, Dependency> node;
+    private InjectionContainer warm;
+
+    @Setup
+    public void setup() throws ResolutionException {
+        DependencySolver solver = DependencySolver.newBuilder().build();
+        solver.resolve(shape.equals("deep") ? SyntheticGraphs.deep(size) : SyntheticGraphs.wide(size));
+        node = solver.getGraph().getOutgoingEdges().iterator().next().getTail();
+        warm = InjectionContainer.create(CachePolicy.MEMOIZE);
+        warm.makeInstantiator(node);
+    }
+
+    /**
+     * Build instantiators for the whole graph in an empty container.
+     */
+    @Benchmark
+    public Instantiator makeInstantiatorCold() {
+        return InjectionContainer.create(CachePolicy.MEMOIZE).makeInstantiator(node);
+    }
+
+    /**
+     * Look up the cached instantiator.
+     */
+    @Benchmark
+    public Instantiator makeInstantiatorWarm() {
+        return warm.makeInstantiator(node);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.bench;
+
+import org.grouplens.grapht.context.ContextMatch;
+import org.grouplens.grapht.context.ContextPattern;
+import org.grouplens.grapht.solver.InjectionContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark {@link ContextPattern#matches(InjectionContext)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContextMatchBenchmark {
+    @Param({"5", "20"})
+    public int contextDepth;
+
+    private InjectionContext context;
+    private ContextPattern anchored;
+    private ContextPattern floating;
+    private ContextPattern failing;
+
+    @Setup
+    public void setup() {
+        context = SyntheticGraphs.context(contextDepth);
+        anchored = ContextPattern.empty().append(Object.class).appendDotStar();
+        floating = SyntheticGraphs.pattern(3);
+        failing = ContextPattern.any().append(Integer.class).appendDotStar();
+    }
+
+    @Benchmark
+    public ContextMatch matchAnchored() {
+        return anchored.matches(context);
+    }
+
+    @Benchmark
+    public ContextMatch matchFloating() {
+        return floating.matches(context);
+    }
+
+    @Benchmark
+    public ContextMatch matchFailing() {
+        return failing.matches(context);
+    }
+}
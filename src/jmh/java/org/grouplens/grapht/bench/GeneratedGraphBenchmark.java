@@ -0,0 +1,83 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.bench;
+
+import org.grouplens.grapht.InjectionException;
+import org.grouplens.grapht.Injector;
+import org.grouplens.grapht.InjectorBuilder;
+import org.grouplens.grapht.synthetic.SyntheticGraph;
+import org.grouplens.grapht.synthetic.SyntheticGraphGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark building an injector and its root component for generated class graphs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneratedGraphBenchmark {
+    /**
+     * The solver resolves each path through the graph separately, so its work grows as
+     * fanOut<sup>depth</sup> before merging.
+     */
+    @Param({"3", "5"})
+    public int depth;
+
+    @Param({"4"})
+    public int fanOut;
+
+    @Param({"0", "2"})
+    public int hierarchyWidth;
+
+    @Param({"false", "true"})
+    public boolean qualified;
+
+    @Param({"0", "20"})
+    public int contextBindings;
+
+    private SyntheticGraph graph;
+
+    @Setup
+    public void setup() {
+        graph = new SyntheticGraphGenerator().setDepth(depth)
+                                             .setFanOut(fanOut)
+                                             .setHierarchyWidth(hierarchyWidth)
+                                             .setQualified(qualified)
+                                             .setContextBindings(contextBindings)
+                                             .generate();
+    }
+
+    @Benchmark
+    public Object buildRoot() throws InjectionException {
+        try (Injector inj = InjectorBuilder.create(graph.getClassLoader(), graph.getModule()).build()) {
+            return inj.getInstance(graph.getRootType());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.bench;
+
+import org.grouplens.grapht.InjectionException;
+import org.grouplens.grapht.Injector;
+import org.grouplens.grapht.InjectorBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import javax.inject.Inject;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark {@link Injector#getInstance(Class)} from several threads sharing one injector.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class InjectorContentionBenchmark {
+    private Injector injector;
+
+    @Setup
+    public void setup() throws InjectionException {
+        injector = InjectorBuilder.create()
+                                  .applyModule(ctx -> {
+                                      ctx.bind(Store.class).to(MemoryStore.class);
+                                      ctx.bind(Request.class).unshared().to(Request.class);
+                                  })
+                                  .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        injector.close();
+    }
+
+    /**
+     * Get a memoized component, which only needs the already-resolved graph.
+     */
+    @Benchmark
+    public Service getMemoized() throws InjectionException {
+        return injector.getInstance(Service.class);
+    }
+
+    /**
+     * Get an unmemoized component, constructing it on each call.
+     */
+    @Benchmark
+    public Request getNewInstance() throws InjectionException {
+        return injector.getInstance(Request.class);
+    }
+
+    public interface Store {}
+
+    public static class MemoryStore implements Store {
+        @Inject
+        public MemoryStore() {}
+    }
+
+    public static class Service {
+        @Inject
+        public Service(Store store) {}
+    }
+
+    public static class Request {
+        @Inject
+        public Request(Service service, Store store) {}
+    }
+}
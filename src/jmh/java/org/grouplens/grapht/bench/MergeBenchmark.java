@@ -0,0 +1,88 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.bench;
+
+import org.grouplens.grapht.graph.DAGNode;
+import org.grouplens.grapht.graph.DAGNodeBuilder;
+import org.grouplens.grapht.graph.MergePool;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark {@link MergePool#merge(DAGNode)} on graphs with many redundant subgraphs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MergeBenchmark {
+    @Param({"20"})
+    public int width;
+
+    @Param({"10"})
+    public int depth;
+
+    private DAGNode<String, String> graph;
+    private MergePool<String, String> warmPool;
+
+    @Setup
+    public void setup() {
+        // the root has width identical, but separately built, chains
+        DAGNodeBuilder<String, String> root = DAGNode.newBuilder("root");
+        for (int i = 0; i < width; i++) {
+            DAGNode<String, String> chain = null;
+            for (int j = 0; j < depth; j++) {
+                DAGNodeBuilder<String, String> bld = DAGNode.newBuilder("node" + j);
+                if (chain != null) {
+                    bld.addEdge(chain, "dep");
+                }
+                chain = bld.build();
+            }
+            root.addEdge(chain, "branch" + i);
+        }
+        graph = root.build();
+        warmPool = MergePool.create();
+        warmPool.merge(graph);
+    }
+
+    /**
+     * Merge into an empty pool, deduplicating the graph against itself.
+     */
+    @Benchmark
+    public DAGNode<String, String> mergeFresh() {
+        return MergePool.<String, String>create().merge(graph);
+    }
+
+    /**
+     * Merge into a pool that has already seen the graph.
+     */
+    @Benchmark
+    public DAGNode<String, String> mergeWarm() {
+        return warmPool.merge(graph);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.bench;
+
+import org.grouplens.grapht.Component;
+import org.grouplens.grapht.Dependency;
+import org.grouplens.grapht.ResolutionException;
+import org.grouplens.grapht.graph.DAGNode;
+import org.grouplens.grapht.reflect.Desire;
+import org.grouplens.grapht.solver.BindingFunction;
+import org.grouplens.grapht.solver.DependencySolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark {@link DependencySolver#resolve(Desire)} on synthetic graphs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+    /**
+     * The graph shape: a deep chain, a wide fan-out, or a chain resolved against many contexts.
+     */
+    @Param({"deep", "wide", "context"})
+    public String shape;
+
+    @Param({"50"})
+    public int size;
+
+    private Desire desire;
+    private List<BindingFunction> functions;
+
+    @Setup
+    public void setup() {
+        switch (shape) {
+        case "deep":
+            desire = SyntheticGraphs.deep(size);
+            functions = Collections.emptyList();
+            break;
+        case "wide":
+            desire = SyntheticGraphs.wide(size);
+            functions = Collections.emptyList();
+            break;
+        case "context":
+            desire = SyntheticGraphs.deep(10);
+            functions = Collections.<BindingFunction>singletonList(SyntheticGraphs.contextHeavyRules(size));
+            break;
+        default:
+            throw new IllegalArgumentException("unknown shape " + shape);
+        }
+    }
+
+    @Benchmark
+    public DAGNode<Component, Dependency> resolve() throws ResolutionException {
+        DependencySolver solver = DependencySolver.newBuilder()
+                                                  .addBindingFunctions(functions)
+                                                  .build();
+        solver.resolve(desire);
+        return solver.getGraph();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.bench;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
+import org.grouplens.grapht.context.ContextPattern;
+import org.grouplens.grapht.context.ContextMatcher;
+import org.grouplens.grapht.reflect.Desire;
+import org.grouplens.grapht.reflect.MockDesire;
+import org.grouplens.grapht.reflect.MockInjectionPoint;
+import org.grouplens.grapht.reflect.MockSatisfaction;
+import org.grouplens.grapht.reflect.Satisfaction;
+import org.grouplens.grapht.solver.BindRule;
+import org.grouplens.grapht.solver.InjectionContext;
+import org.grouplens.grapht.solver.MockBindRule;
+import org.grouplens.grapht.solver.RuleBasedBindingFunction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Synthetic desire graphs for benchmarking the solver without loading real component classes.
+ * Satisfactions are mocks; each satisfaction is distinct, so nodes are only shared where a
+ * graph reuses a desire.
+ */
+final class SyntheticGraphs {
+    private SyntheticGraphs() {}
+
+    /**
+     * A chain of desires, each depending on the next.
+     * @param depth The length of the chain.
+     * @return The desire at the head of the chain.
+     */
+    static Desire deep(int depth) {
+        Desire next = null;
+        for (int i = 0; i < depth; i++) {
+            List<Desire> deps = next == null
+                    ? Collections.<Desire>emptyList()
+                    : Collections.singletonList(next);
+            next = new MockDesire(new MockSatisfaction(Object.class, deps));
+        }
+        return next;
+    }
+
+    /**
+     * A desire with many independent leaf dependencies.
+     * @param width The number of dependencies.
+     * @return The root desire.
+     */
+    static Desire wide(int width) {
+        List<Desire> deps = new ArrayList<Desire>(width);
+        for (int i = 0; i < width; i++) {
+            deps.add(new MockDesire(new MockSatisfaction(Object.class)));
+        }
+        return new MockDesire(new MockSatisfaction(Object.class, deps));
+    }
+
+    /**
+     * A binding function with many context-specific rule groups, none of which binds anything.
+     * Every group's context must still be matched against each desire's context.
+     * @param contexts The number of distinct context matchers.
+     * @return The binding function.
+     */
+    static RuleBasedBindingFunction contextHeavyRules(int contexts) {
+        Multimap<ContextMatcher, BindRule> rules = ArrayListMultimap.create();
+        for (int i = 0; i < contexts; i++) {
+            rules.put(pattern(i), new MockBindRule());
+        }
+        return new RuleBasedBindingFunction(rules);
+    }
+
+    /**
+     * Make a distinct context pattern.
+     * @param i The pattern number.
+     * @return A pattern requiring {@code i + 1} components after any prefix.
+     */
+    static ContextPattern pattern(int i) {
+        ContextPattern pat = ContextPattern.any();
+        for (int j = 0; j <= i; j++) {
+            pat = pat.append(Object.class);
+        }
+        return pat.appendDotStar();
+    }
+
+    /**
+     * Make an injection context of a given depth.
+     * @param depth The number of components in the context.
+     * @return The context.
+     */
+    static InjectionContext context(int depth) {
+        InjectionContext ctx = InjectionContext.singleton(new MockSatisfaction(Object.class));
+        for (int i = 1; i < depth; i++) {
+            Satisfaction sat = new MockSatisfaction(i % 2 == 0 ? Object.class : String.class);
+            ctx = ctx.extend(sat, new MockInjectionPoint(Object.class, false));
+        }
+        return ctx;
+    }
+}
@@ -122,6 +122,26 @@ public interface Binding<T> {
      */
     Binding<T> unshared();
 
+    /**
+     * Configure the binding so that one instance per thread is used when satisfying matched
+     * injection points.
+     *
+     * @return A newly configured binding
+     * @see CachePolicy#THREAD_LOCAL
+     * @since 0.11
+     */
+    Binding<T> threadLocal();
+
+    /**
+     * Configure the binding so that one instance per active {@link Scope} is used when
+     * satisfying matched injection points.
+     *
+     * @return A newly configured binding
+     * @see CachePolicy#SCOPED
+     * @since 0.11
+     */
+    Binding<T> scoped();
+
     /**
      * Configure the binding so that its results are 'fixed'.  Fixed results will not be rewritten
      * by the dependency solver in rewrite mode.
@@ -129,6 +149,18 @@ public interface Binding<T> {
      */
     Binding<T> fixed();
 
+    /**
+     * Configure the binding so that matched injection points receive a lazy proxy instead of the
+     * component itself.  The component is constructed the first time a method is invoked on the
+     * proxy.  This only applies to injection points whose type is an interface; other injection
+     * points are satisfied eagerly.
+     *
+     * @return A newly configured binding.
+     * @see org.grouplens.grapht.annotation.Lazy
+     * @since 0.11
+     */
+    Binding<T> lazy();
+
     /**
      * <p>
      * Complete this binding by specifying a subtype that will satisfy the
@@ -71,47 +71,49 @@ class BindingImpl<T> implements Binding<T> {
 
     private final CachePolicy cachePolicy;
     private final boolean fixed;
+    private final boolean lazy;
 
     public BindingImpl(ContextImpl context, Class<T> type) {
         this(context, type, context.getBuilder().getDefaultExclusions(),
              Qualifiers.matchDefault(),
              CachePolicy.NO_PREFERENCE,
-             false);
+             false, false);
     }
 
     public BindingImpl(ContextImpl context, Class<T> type,
                        Set<Class<?>> excludes, QualifierMatcher matcher, 
-                       CachePolicy cachePolicy, boolean fixed) {
+                       CachePolicy cachePolicy, boolean fixed, boolean lazy) {
         this.context = context;
         this.cachePolicy = cachePolicy;
         sourceType = type;
         excludeTypes = excludes;
         qualifier = matcher;
         this.fixed = fixed;
+        this.lazy = lazy;
     }
 
     @Override
     public Binding<T> withQualifier(@NotNull Class<? extends Annotation> qualifier) {
         QualifierMatcher q = Qualifiers.match(qualifier);
-        return new BindingImpl<T>(context, sourceType, excludeTypes, q, cachePolicy, fixed);
+        return new BindingImpl<T>(context, sourceType, excludeTypes, q, cachePolicy, fixed, lazy);
     }
     
     @Override
     public Binding<T> withQualifier(@NotNull Annotation annot) {
         QualifierMatcher q = Qualifiers.match(annot);
-        return new BindingImpl<T>(context, sourceType, excludeTypes, q, cachePolicy, fixed);
+        return new BindingImpl<T>(context, sourceType, excludeTypes, q, cachePolicy, fixed, lazy);
     }
 
     @Override
     public Binding<T> withAnyQualifier() {
         QualifierMatcher q = Qualifiers.matchAny();
-        return new BindingImpl<T>(context, sourceType, excludeTypes, q, cachePolicy, fixed);
+        return new BindingImpl<T>(context, sourceType, excludeTypes, q, cachePolicy, fixed, lazy);
     }
     
     @Override
     public Binding<T> unqualified() {
         QualifierMatcher q = Qualifiers.matchNone();
-        return new BindingImpl<T>(context, sourceType, excludeTypes, q, cachePolicy, fixed);
+        return new BindingImpl<T>(context, sourceType, excludeTypes, q, cachePolicy, fixed, lazy);
     }
 
     @Override
@@ -119,22 +121,37 @@ class BindingImpl<T> implements Binding<T> {
         Preconditions.notNull("exclude type", exclude);
         Set<Class<?>> excludes = new HashSet<Class<?>>(excludeTypes);
         excludes.add(exclude);
-        return new BindingImpl<T>(context, sourceType, excludes, qualifier, cachePolicy, fixed);
+        return new BindingImpl<T>(context, sourceType, excludes, qualifier, cachePolicy, fixed, lazy);
     }
     
     @Override
     public Binding<T> shared() {
-        return new BindingImpl<T>(context, sourceType, excludeTypes, qualifier, CachePolicy.MEMOIZE, fixed);
+        return new BindingImpl<T>(context, sourceType, excludeTypes, qualifier, CachePolicy.MEMOIZE, fixed, lazy);
     }
     
     @Override
     public Binding<T> unshared() {
-        return new BindingImpl<T>(context, sourceType, excludeTypes, qualifier, CachePolicy.NEW_INSTANCE, fixed);
+        return new BindingImpl<T>(context, sourceType, excludeTypes, qualifier, CachePolicy.NEW_INSTANCE, fixed, lazy);
+    }
+
+    @Override
+    public Binding<T> threadLocal() {
+        return new BindingImpl<T>(context, sourceType, excludeTypes, qualifier, CachePolicy.THREAD_LOCAL, fixed, lazy);
+    }
+
+    @Override
+    public Binding<T> scoped() {
+        return new BindingImpl<T>(context, sourceType, excludeTypes, qualifier, CachePolicy.SCOPED, fixed, lazy);
     }
 
     @Override
     public Binding<T> fixed() {
-        return new BindingImpl<T>(context, sourceType, excludeTypes, qualifier, cachePolicy, true);
+        return new BindingImpl<T>(context, sourceType, excludeTypes, qualifier, cachePolicy, true, lazy);
+    }
+
+    @Override
+    public Binding<T> lazy() {
+        return new BindingImpl<T>(context, sourceType, excludeTypes, qualifier, cachePolicy, fixed, true);
     }
 
     @Override
@@ -268,6 +285,9 @@ class BindingImpl<T> implements Binding<T> {
         if (fixed) {
             brb.addFlag(BindingFlag.FIXED);
         }
+        if (lazy) {
+            brb.addFlag(BindingFlag.LAZY);
+        }
         return brb;
     }
 
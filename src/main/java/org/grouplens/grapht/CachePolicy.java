@@ -28,16 +28,61 @@ public enum CachePolicy {
     /**
      * Either MEMOIZE or NEW_INSTANCE may be used.
      */
-    NO_PREFERENCE,
+    NO_PREFERENCE(0),
     /**
      * Do not create more instances than necessary, one instance per node in the
      * dependency graph.
      */
-    MEMOIZE,
+    MEMOIZE(1),
     /**
      * Injectors must create new instances at every request if possible,
      * effectively no caching.
      */
-    NEW_INSTANCE
-    
+    NEW_INSTANCE(4),
+    /**
+     * Create one instance per thread for each node in the dependency graph.  This allows
+     * components that are not thread-safe to be reused without locking.  Thread-local instances
+     * are shut down when their container's lifecycle manager is closed.
+     *
+     * @since 0.11
+     */
+    THREAD_LOCAL(3),
+    /**
+     * Create one instance per active {@link Scope} for each node in the dependency graph.  Such
+     * components can only be instantiated while a scope is active on the current thread, and
+     * are shut down when their scope is closed.
+     *
+     * @since 0.11
+     */
+    SCOPED(2);
+
+    private final int precedence;
+
+    CachePolicy(int prec) {
+        precedence = prec;
+    }
+
+    /**
+     * Get the precedence of this policy.  When several bindings along a desire chain specify a
+     * cache policy, the policy with the highest precedence is used.  Policies that share
+     * instances less widely have higher precedence, so a binding can always ask for fewer
+     * shared instances than the bindings before it.
+     *
+     * @return The policy's precedence.
+     * @since 0.11
+     */
+    public int getPrecedence() {
+        return precedence;
+    }
+
+    /**
+     * Query whether instances with this policy are bound to a thread or scope.  A component
+     * that outlives that context, such as a memoized one, should not depend on them directly.
+     *
+     * @return {@code true} for {@link #THREAD_LOCAL} and {@link #SCOPED}.
+     * @since 0.11
+     */
+    public boolean isContextBound() {
+        return this == THREAD_LOCAL || this == SCOPED;
+    }
 }
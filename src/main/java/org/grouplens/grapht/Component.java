@@ -27,6 +27,8 @@ package org.grouplens.grapht;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.grouplens.grapht.reflect.Satisfaction;
+import org.grouplens.grapht.reflect.Satisfactions;
+import org.grouplens.grapht.util.Interning;
 import org.grouplens.grapht.util.Preconditions;
 
 import java.io.Serializable;
@@ -42,6 +44,7 @@ public class Component implements Serializable {
     
     private final Satisfaction satisfaction;
     private final CachePolicy cachePolicy;
+    private transient int hashCode;
 
     private Component(Satisfaction satisfaction, CachePolicy policy) {
         Preconditions.notNull("satisfaction", satisfaction);
@@ -54,14 +57,16 @@ public class Component implements Serializable {
     /**
      * Create a new Component wrapping the given satisfaction and cache policy.  The injector is
      * responsible for using the satisfaction to implement this component consistent with its
-     * cache policy.
+     * cache policy.  Components are {@linkplain Interning interned}, so equal components share
+     * a single instance, unless they wrap a bound instance or provider (see
+     * {@link Satisfactions#isInternable(Satisfaction)}).
      *
      * @param satisfaction The satisfaction to wrap
      * @param policy       The policy used with this satisfaction
      * @throws NullPointerException the satisfaction or policy is null
      */
     public static Component create(Satisfaction satisfaction, CachePolicy policy) {
-        return new Component(satisfaction, policy);
+        return new Component(satisfaction, policy).intern();
     }
 
     /**
@@ -81,11 +86,17 @@ public class Component implements Serializable {
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (!(o instanceof Component)) {
             return false;
         }
             
         Component c = (Component) o;
+        if (c.hashCode() != hashCode()) {
+            return false;
+        }
         EqualsBuilder eqb = new EqualsBuilder();
         return eqb.append(satisfaction, c.satisfaction)
                   .append(cachePolicy, c.cachePolicy)
@@ -94,10 +105,27 @@ public class Component implements Serializable {
     
     @Override
     public int hashCode() {
-        HashCodeBuilder hcb = new HashCodeBuilder();
-        return hcb.append(satisfaction)
-                  .append(cachePolicy)
-                  .toHashCode();
+        int h = hashCode;
+        if (h == 0) {
+            HashCodeBuilder hcb = new HashCodeBuilder();
+            h = hcb.append(satisfaction)
+                   .append(cachePolicy)
+                   .toHashCode();
+            hashCode = h;
+        }
+        return h;
+    }
+
+    /**
+     * Intern deserialized components.
+     * @return The canonical instance of this component.
+     */
+    private Object readResolve() {
+        return intern();
+    }
+
+    private Component intern() {
+        return Satisfactions.isInternable(satisfaction) ? Interning.intern(this) : this;
     }
     
     @Override
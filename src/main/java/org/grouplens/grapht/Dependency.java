@@ -31,6 +31,7 @@ import org.grouplens.grapht.solver.DesireChain;
 import org.jetbrains.annotations.Nullable;
 import java.io.Serializable;
 import java.util.EnumSet;
+import java.util.function.Function;
 
 /**
  * Track information about a particular resolved dependency. Used as the edge of DI graph nodes
@@ -40,6 +41,15 @@ import java.util.EnumSet;
 public class Dependency implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Function extracting a dependency's initial desire.  Use this constant as the key function for
+     * {@link org.grouplens.grapht.graph.DAGNode#getOutgoingEdgeByKey(Function, Object)}, so that
+     * lookups share each node's edge index.
+     *
+     * @since 0.11
+     */
+    public static final Function<Dependency, Desire> INITIAL_DESIRE = Dependency::getInitialDesire;
+
     private final DesireChain desireChain;
     private final EnumSet<Flag> flags;
 
@@ -84,6 +94,16 @@ public class Dependency implements Serializable {
         return flags.contains(Flag.FIXED);
     }
 
+    /**
+     * Query whether this dependency should be injected lazily.
+     * @return {@code true} if the dependency should be constructed on first use rather than when
+     *         the component depending on it is constructed.
+     * @see org.grouplens.grapht.annotation.Lazy
+     */
+    public boolean isLazy() {
+        return flags.contains(Flag.LAZY);
+    }
+
     /**
      * Query whether this dependency has a particular initial desire.
      * @param d The desire.
@@ -125,7 +145,11 @@ public class Dependency implements Serializable {
         /**
          * Indicates that a dependency is immune to rewriting.
          */
-        FIXED;
+        FIXED,
+        /**
+         * Indicates that a dependency is injected lazily.
+         */
+        LAZY;
 
         public static EnumSet<Flag> emptySet() {
             return EnumSet.noneOf(Flag.class);
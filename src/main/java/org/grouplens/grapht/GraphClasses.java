@@ -0,0 +1,214 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht;
+
+import org.grouplens.grapht.graph.DAGEdge;
+import org.grouplens.grapht.graph.DAGNode;
+import org.grouplens.grapht.reflect.AbstractSatisfactionVisitor;
+import org.grouplens.grapht.reflect.InjectionPoint;
+import org.grouplens.grapht.reflect.Satisfaction;
+import org.jetbrains.annotations.Nullable;
+
+import javax.inject.Provider;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Member;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The classes referenced by a solved dependency graph.  Loading and linking these classes
+ * lazily, on the first requests for instances, is a large part of an application's cold-start
+ * time; this class supports doing that work ahead of time:
+ *
+ * <ul>
+ * <li>{@link #preload(DAGNode, Executor)} links the classes in parallel and fills their
+ * reflection caches, before any component is constructed.</li>
+ * <li>{@link #writeClassList(DAGNode, Writer)} writes a class list for building an AppCDS
+ * shared archive (with {@code -Xshare:dump -XX:SharedClassListFile=...}).</li>
+ * </ul>
+ *
+ * <p>The classes are those of satisfactions, instances and providers, injection point types,
+ * members and qualifiers, and all of their superclasses and interfaces.  Static initializers
+ * are not run, so preloading does not change when component classes are initialized.</p>
+ *
+ * @since 0.11
+ * @author <a href="http://grouplens.org">GroupLens Research</a>
+ */
+public final class GraphClasses {
+    private GraphClasses() {}
+
+    /**
+     * Find the classes referenced by a graph.
+     *
+     * @param root The root of the graph.
+     * @return The classes referenced by the graph, along with their superclasses and
+     *         interfaces.  Primitive and array types are not included (array element types
+     *         are).
+     */
+    public static Set<Class<?>> findClasses(DAGNode<Component, Dependency> root) {
+        Set<Class<?>> classes = new LinkedHashSet<Class<?>>();
+        Deque<Class<?>> work = new ArrayDeque<Class<?>>();
+        for (DAGNode<Component, Dependency> node: root.getReachableNodes()) {
+            Satisfaction sat = node.getLabel().getSatisfaction();
+            work.add(sat.getErasedType());
+            Class<?> impl = sat.visit(new ImplementationClass());
+            if (impl != null) {
+                work.add(impl);
+            }
+            for (DAGEdge<Component, Dependency> edge: node.getOutgoingEdges()) {
+                InjectionPoint ip = edge.getLabel().getInitialDesire().getInjectionPoint();
+                work.add(ip.getErasedType());
+                Member member = ip.getMember();
+                if (member != null) {
+                    work.add(member.getDeclaringClass());
+                }
+                Annotation qual = ip.getQualifier();
+                if (qual != null) {
+                    work.add(qual.annotationType());
+                }
+            }
+        }
+
+        while (!work.isEmpty()) {
+            Class<?> cls = work.removeFirst();
+            while (cls.isArray()) {
+                cls = cls.getComponentType();
+            }
+            if (cls.isPrimitive() || !classes.add(cls)) {
+                continue;
+            }
+            if (cls.getSuperclass() != null) {
+                work.add(cls.getSuperclass());
+            }
+            work.addAll(Arrays.asList(cls.getInterfaces()));
+        }
+        return classes;
+    }
+
+    /**
+     * Preload the classes referenced by a graph in parallel.  Each class is linked, which also
+     * loads the classes its declared members refer to, and its reflective member data is
+     * computed so that instantiating it does not have to.
+     *
+     * @param root The root of the graph.
+     * @param executor The executor to load classes with.
+     * @return A future that completes when all classes have been loaded.  It completes
+     *         exceptionally if a class cannot be linked.
+     */
+    public static CompletableFuture<Void> preload(DAGNode<Component, Dependency> root,
+                                                  Executor executor) {
+        Set<Class<?>> classes = findClasses(root);
+        List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>(classes.size());
+        for (Class<?> cls: classes) {
+            futures.add(CompletableFuture.runAsync(() -> link(cls), executor));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]));
+    }
+
+    /**
+     * Preload the classes referenced by a graph using the common fork-join pool.
+     *
+     * @param root The root of the graph.
+     * @return A future that completes when all classes have been loaded.
+     * @see #preload(DAGNode, Executor)
+     */
+    public static CompletableFuture<Void> preload(DAGNode<Component, Dependency> root) {
+        return preload(root, ForkJoinPool.commonPool());
+    }
+
+    private static void link(Class<?> cls) {
+        // querying declared members makes the JVM link the class
+        cls.getDeclaredConstructors();
+        cls.getDeclaredMethods();
+        cls.getDeclaredFields();
+    }
+
+    /**
+     * Write an AppCDS class list for the classes referenced by a graph.  The list contains one
+     * class per line, in the JVM's internal name format, sorted by name.  Classes that cannot
+     * be archived, such as dynamic proxies and lambda classes, are omitted.
+     *
+     * @param root The root of the graph.
+     * @param out The writer to write the list to.
+     * @throws IOException if there is an error writing the list.
+     */
+    public static void writeClassList(DAGNode<Component, Dependency> root,
+                                      Writer out) throws IOException {
+        SortedSet<String> names = new TreeSet<String>();
+        for (Class<?> cls: findClasses(root)) {
+            String name = getClassListName(cls);
+            if (name != null) {
+                names.add(name);
+            }
+        }
+        for (String name: names) {
+            out.write(name);
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    /**
+     * Get the class list name of a class.  Dynamic proxies, lambda classes, and hidden classes
+     * are generated at run time and cannot be listed; anonymous and other nested classes can.
+     *
+     * @param cls The class.
+     * @return The class's internal name, or {@code null} if it cannot be listed.
+     */
+    @Nullable
+    static String getClassListName(Class<?> cls) {
+        String name = cls.getName();
+        // hidden class names contain a '/' that no binary name can
+        if (Proxy.isProxyClass(cls) || name.contains("$$Lambda") || name.indexOf('/') >= 0) {
+            return null;
+        }
+        return name.replace('.', '/');
+    }
+
+    /**
+     * Find the implementation class of an instance or provider satisfaction.
+     */
+    private static class ImplementationClass extends AbstractSatisfactionVisitor<Class<?>> {
+        @Override
+        public Class<?> visitInstance(Object instance) {
+            return instance.getClass();
+        }
+
+        @Override
+        public Class<?> visitProviderClass(Class<? extends Provider<?>> pclass) {
+            return pclass;
+        }
+
+        @Override
+        public Class<?> visitProviderInstance(Provider<?> provider) {
+            return provider.getClass();
+        }
+    }
+}
@@ -29,21 +29,31 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
 import org.grouplens.grapht.graph.DAGEdge;
 import org.grouplens.grapht.graph.DAGNode;
+import org.grouplens.grapht.metrics.InjectorMetrics;
 import org.grouplens.grapht.reflect.Desire;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.inject.Provider;
+import java.util.ArrayDeque;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * Container for dependency-injected components.  A container is the scope of memoization, so
  * components with a cache policy of {@link CachePolicy#MEMOIZE} will share an instance so long
- * as they are instantiated by the same instantiator.
+ * as they are instantiated by the same instantiator.  Components with a cache policy of
+ * {@link CachePolicy#THREAD_LOCAL} or {@link CachePolicy#SCOPED} share an instance per thread
+ * or per {@link Scope}, respectively, within the container.
  *
  * @since 0.9
  * @author <a href="http://www.grouplens.org">GroupLens Research</a>
@@ -54,6 +64,12 @@ public class InjectionContainer {
     private final CachePolicy defaultCachePolicy;
     private final Map<DAGNode<Component, Dependency>, Instantiator> providerCache;
     private final LifecycleManager manager;
+    private final InjectorMetrics metrics;
+
+    @Nullable
+    private final InjectionContainer parent;
+    private final Set<DAGNode<Component, Dependency>> inheritedNodes;
+    private final SetMultimap<DAGNode<Component, Dependency>, DAGEdge<Component, Dependency>> inheritedBackEdges;
 
     /**
      * Create a new instantiator with a default policy of {@code MEMOIZE}.
@@ -69,7 +85,7 @@ public class InjectionContainer {
      * @return The instantiator.
      */
     public static InjectionContainer create(CachePolicy dft) {
-        return new InjectionContainer(dft, null);
+        return new InjectionContainer(dft, null, InjectorMetrics.disabled());
     }
 
     /**
@@ -79,13 +95,57 @@ public class InjectionContainer {
      * @return The instantiator.
      */
     public static InjectionContainer create(CachePolicy dft, LifecycleManager mgr) {
-        return new InjectionContainer(dft, mgr);
+        return create(dft, mgr, InjectorMetrics.disabled());
     }
 
-    private InjectionContainer(CachePolicy dft, LifecycleManager mgr) {
+    /**
+     * Create a new instantiator that records metrics.
+     * @param dft The default cache policy.
+     * @param mgr The lifecycle manager.
+     * @param metrics The metrics in which to record cache lookups and construction latencies.
+     * @return The instantiator.
+     * @since 0.11
+     */
+    public static InjectionContainer create(CachePolicy dft, LifecycleManager mgr, InjectorMetrics metrics) {
+        return new InjectionContainer(dft, mgr, metrics);
+    }
+
+    private InjectionContainer(CachePolicy dft, LifecycleManager mgr, InjectorMetrics metrics) {
+        this(dft, mgr, metrics, null, ImmutableSet.<DAGNode<Component, Dependency>>of(),
+             ImmutableSetMultimap.<DAGNode<Component, Dependency>, DAGEdge<Component, Dependency>>of());
+    }
+
+    private InjectionContainer(CachePolicy dft, LifecycleManager mgr, InjectorMetrics metrics,
+                               @Nullable InjectionContainer parent,
+                               Set<DAGNode<Component, Dependency>> inherited,
+                               SetMultimap<DAGNode<Component, Dependency>, DAGEdge<Component, Dependency>> inheritedBackEdges) {
         defaultCachePolicy = dft;
         providerCache = new WeakHashMap<DAGNode<Component, Dependency>, Instantiator>();
         manager = mgr;
+        this.metrics = metrics;
+        this.parent = parent;
+        inheritedNodes = inherited;
+        this.inheritedBackEdges = inheritedBackEdges;
+    }
+
+    /**
+     * Create a child container.  The child delegates instantiation of the inherited nodes to
+     * this container, so it shares this container's memoized instances of those nodes; other
+     * nodes are instantiated by the child itself.
+     *
+     * @param inherited The nodes to share with this container.  These are usually the nodes of
+     *                  the graph this container has been instantiating.
+     * @param backEdges The back edges to use when instantiating inherited nodes.
+     * @param mgr The lifecycle manager for components instantiated by the child.
+     * @return The child container.
+     * @since 0.11
+     */
+    public InjectionContainer createChild(Set<DAGNode<Component, Dependency>> inherited,
+                                          SetMultimap<DAGNode<Component, Dependency>, DAGEdge<Component, Dependency>> backEdges,
+                                          LifecycleManager mgr) {
+        return new InjectionContainer(defaultCachePolicy, mgr, metrics, this,
+                                      ImmutableSet.copyOf(inherited),
+                                      ImmutableSetMultimap.copyOf(backEdges));
     }
 
     /**
@@ -112,25 +172,49 @@ public class InjectionContainer {
      */
     public Instantiator makeInstantiator(DAGNode<Component, Dependency> node,
                                          SetMultimap<DAGNode<Component, Dependency>, DAGEdge<Component, Dependency>> backEdges) {
+        if (parent != null && inheritedNodes.contains(node)) {
+            // unchanged from the parent's graph, share its instantiator
+            return parent.makeInstantiator(node, inheritedBackEdges);
+        }
+
         Instantiator cached;
         synchronized (providerCache) {
             cached = providerCache.get(node);
         }
+        metrics.recordCacheLookup(cached != null);
         if (cached == null) {
             logger.debug("Node has not been memoized, instantiating: {}", node.getLabel());
 
             Map<Desire, Instantiator> depMap = makeDependencyMap(node, backEdges);
 
-            Instantiator raw = node.getLabel().getSatisfaction().makeInstantiator(depMap, manager);
-
-            CachePolicy policy = node.getLabel().getCachePolicy();
-            if (policy.equals(CachePolicy.NO_PREFERENCE)) {
-                policy = defaultCachePolicy;
-            }
+            CachePolicy policy = getEffectiveCachePolicy(node);
             if (policy.equals(CachePolicy.MEMOIZE)) {
+                checkCapturedDependencies(node);
+            }
+            // scoped components are shut down with their scope, not the container
+            ComponentRegistry registry;
+            if (policy.equals(CachePolicy.SCOPED)) {
+                registry = Scope.registryFor(node);
+            } else {
+                registry = manager == null ? null : manager.forNode(node);
+            }
+            Instantiator raw = node.getLabel().getSatisfaction().makeInstantiator(depMap, registry);
+            if (metrics.isEnabled()) {
+                raw = Instantiators.timed(raw, metrics);
+            }
+
+            switch (policy) {
+            case MEMOIZE:
                 // enforce memoization on providers for MEMOIZE policy
                 cached = Instantiators.memoize(raw);
-            } else {
+                break;
+            case THREAD_LOCAL:
+                cached = Instantiators.threadLocal(raw);
+                break;
+            case SCOPED:
+                cached = Instantiators.scoped(raw);
+                break;
+            default:
                 // Satisfaction.makeInstantiator() returns providers that are expected
                 // to create new instances with each invocation
                 assert policy.equals(CachePolicy.NEW_INSTANCE);
@@ -148,6 +232,110 @@ public class InjectionContainer {
         return cached;
     }
 
+    /**
+     * Instantiate the component represented by a graph asynchronously.  Memoized components
+     * that {@code node} depends on are constructed on {@code executor} as soon as their own
+     * dependencies are available, so independent parts of the graph are built concurrently.
+     * The component itself is instantiated once all of them have been built.
+     * <p>
+     * Components behind an injected {@link Provider} or a lazy dependency are not constructed
+     * ahead of time, since they may never be used.
+     *
+     * @param node The graph.
+     * @param backEdges A multimap of back edges for cyclic dependencies.
+     * @param executor The executor on which to construct components.
+     * @return A future that completes with the instance, or exceptionally with the
+     *         {@link ConstructionException} that prevented it from being built.
+     * @since 0.11
+     */
+    public CompletableFuture<Object> instantiateAsync(DAGNode<Component, Dependency> node,
+                                                      SetMultimap<DAGNode<Component, Dependency>, DAGEdge<Component, Dependency>> backEdges,
+                                                      Executor executor) {
+        // find the nodes that will be eagerly constructed by the time node is
+        Set<DAGNode<Component, Dependency>> eager = Sets.newHashSet();
+        Queue<DAGNode<Component, Dependency>> work = new ArrayDeque<>();
+        eager.add(node);
+        work.add(node);
+        while (!work.isEmpty()) {
+            DAGNode<Component, Dependency> n = work.remove();
+            if (Provider.class.equals(n.getLabel().getSatisfaction().getErasedType())) {
+                continue;
+            }
+            for (DAGEdge<Component, Dependency> edge: n.getOutgoingEdges()) {
+                if (edge.getLabel().isLazy()) {
+                    continue;
+                }
+                if (eager.add(edge.getTail())) {
+                    work.add(edge.getTail());
+                }
+            }
+        }
+
+        // scoped components are built in the scope active for the caller
+        Scope scope = Scope.current();
+
+        // sorted nodes put each node after all of its dependencies
+        Map<DAGNode<Component, Dependency>, CompletableFuture<Object>> futures = Maps.newHashMap();
+        for (DAGNode<Component, Dependency> n: node.getSortedNodes()) {
+            if (!eager.contains(n)) {
+                continue;
+            }
+            CompletableFuture<?>[] deps =
+                    n.getOutgoingEdges()
+                     .stream()
+                     .map(e -> futures.get(e.getTail()))
+                     .filter(f -> f != null)
+                     .toArray(CompletableFuture[]::new);
+            CompletableFuture<Void> ready = CompletableFuture.allOf(deps);
+            CompletableFuture<Object> future;
+            if (n == node || getEffectiveCachePolicy(n).equals(CachePolicy.MEMOIZE)) {
+                future = ready.thenApplyAsync(v -> {
+                    try (Scope.Activation act = scope != null ? scope.enter() : null) {
+                        return makeInstantiator(n, backEdges).instantiate();
+                    } catch (ConstructionException e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor);
+            } else {
+                // new instances are built by the components that use them
+                future = ready.thenApply(v -> null);
+            }
+            futures.put(n, future);
+        }
+        return futures.get(node);
+    }
+
+    /**
+     * Warn about direct dependencies of a memoized component on thread-local or scoped
+     * components.  The memoized instance keeps the dependency instance it was built with, so
+     * that instance would escape its thread or scope.  Injected providers are not reported,
+     * since they look up an instance on each call.
+     */
+    private void checkCapturedDependencies(DAGNode<Component, Dependency> node) {
+        for (DAGEdge<Component, Dependency> edge: node.getOutgoingEdges()) {
+            DAGNode<Component, Dependency> tail = edge.getTail();
+            CachePolicy tpol = getEffectiveCachePolicy(tail);
+            if (tpol.isContextBound()) {
+                logger.warn("memoized component {} depends on {} component {}, which it will retain",
+                            node.getLabel().getSatisfaction(), tpol, tail.getLabel().getSatisfaction());
+            }
+        }
+    }
+
+    /**
+     * Get the cache policy that will actually be applied to a node.
+     * @param node The node.
+     * @return The node's cache policy, with {@link CachePolicy#NO_PREFERENCE} replaced by this
+     *         container's default policy.
+     */
+    private CachePolicy getEffectiveCachePolicy(DAGNode<Component, Dependency> node) {
+        CachePolicy policy = node.getLabel().getCachePolicy();
+        if (policy.equals(CachePolicy.NO_PREFERENCE)) {
+            policy = defaultCachePolicy;
+        }
+        return policy;
+    }
+
     private Map<Desire, Instantiator> makeDependencyMap(DAGNode<Component, Dependency> node, SetMultimap<DAGNode<Component, Dependency>, DAGEdge<Component, Dependency>> backEdges) {
         Set<DAGEdge<Component,Dependency>> edges = node.getOutgoingEdges();
         if (backEdges.containsKey(node)) {
@@ -161,7 +349,7 @@ public class InjectionContainer {
         for (DAGEdge<Component,Dependency> edge: edges) {
             desires.add(edge.getLabel().getInitialDesire());
         }
-        return Maps.asMap(desires.build(), new DepLookup(edges, backEdges));
+        return Maps.asMap(desires.build(), new DepLookup(node, backEdges));
     }
 
     /**
@@ -174,32 +362,50 @@ public class InjectionContainer {
     }
 
     /**
-     * Function to look up a desire in a set of dependency edges.
+     * Function to look up a desire in a node's dependency edges and back edges.
      */
     private class DepLookup implements Function<Desire,Instantiator> {
-        private final Set<DAGEdge<Component, Dependency>> edges;
+        private final DAGNode<Component, Dependency> node;
         private final SetMultimap<DAGNode<Component, Dependency>, DAGEdge<Component, Dependency>> backEdges;
 
         /**
          * Construct a depenency lookup funciton.
-         * @param edges The set of edges to consult.
+         * @param node The node whose edges (and back edges) should be consulted.
          * @param backEdges The back edge map (to pass to {@link #makeInstantiator(DAGNode,SetMultimap)}).
          */
-        public DepLookup(Set<DAGEdge<Component,Dependency>> edges,
+        public DepLookup(DAGNode<Component,Dependency> node,
                          SetMultimap<DAGNode<Component, Dependency>, DAGEdge<Component, Dependency>> backEdges) {
-            this.edges = edges;
+            this.node = node;
             this.backEdges = backEdges;
         }
 
         @Nullable
         @Override
         public Instantiator apply(@Nullable Desire input) {
-            for (DAGEdge<Component,Dependency> edge: edges) {
-                if (edge.getLabel().getInitialDesire().equals(input)) {
-                    return makeInstantiator(edge.getTail(), backEdges);
+            DAGEdge<Component,Dependency> edge = node.getOutgoingEdgeByKey(Dependency.INITIAL_DESIRE, input);
+            if (edge == null) {
+                // back edges are rare, so they are just scanned
+                for (DAGEdge<Component,Dependency> back: backEdges.get(node)) {
+                    if (back.getLabel().hasInitialDesire(input)) {
+                        edge = back;
+                        break;
+                    }
+                }
+            }
+            if (edge == null) {
+                return null;
+            }
+
+            Instantiator itor = makeInstantiator(edge.getTail(), backEdges);
+            if (edge.getLabel().isLazy()) {
+                Class<?> type = input.getInjectionPoint().getErasedType();
+                if (type.isInterface()) {
+                    itor = Instantiators.lazy(itor, type);
+                } else {
+                    logger.warn("cannot lazily inject non-interface type {}, injecting eagerly", type);
                 }
             }
-            return null;
+            return itor;
         }
     }
 }
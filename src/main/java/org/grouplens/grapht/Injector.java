@@ -29,6 +29,10 @@ import org.jetbrains.annotations.Nullable;
 import javax.inject.Qualifier;
 import java.io.Closeable;
 import java.lang.annotation.Annotation;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * <p>
@@ -93,6 +97,84 @@ public interface Injector extends AutoCloseable {
     @Nullable
     <T> T tryGetInstance(Annotation qualifier, Class<T> type) throws InjectionException;
 
+    /**
+     * Get an instance of T asynchronously, constructing it on the common fork-join pool.
+     *
+     * @param <T> The object type being created
+     * @param type The class type
+     * @return A future that completes with an instance of type T, or exceptionally with the
+     *         {@link InjectionException} that prevented it from being created.
+     * @see #getInstanceAsync(Annotation, Class, Executor)
+     * @since 0.11
+     */
+    @NotNull
+    default <T> CompletableFuture<T> getInstanceAsync(Class<T> type) {
+        return getInstanceAsync(null, type, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Get an instance of T with the given {@link Qualifier} annotation asynchronously.  The
+     * calling thread is not blocked while the instance is constructed; construction happens on
+     * {@code executor}.  Injectors may use the executor to build independent dependencies of the
+     * instance concurrently.
+     * <p>
+     * The default implementation simply invokes {@link #getInstance(Annotation, Class)} on the
+     * executor.
+     *
+     * @param <T> The object type
+     * @param qualifier The qualifier on of the returned instance, or {@code null} for an
+     *                  unqualified instance
+     * @param type The class type
+     * @param executor The executor on which to construct components.
+     * @return A future that completes with an instance of type T, or exceptionally with the
+     *         {@link InjectionException} that prevented it from being created.
+     * @since 0.11
+     */
+    @NotNull
+    default <T> CompletableFuture<T> getInstanceAsync(Annotation qualifier, Class<T> type, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return getInstance(qualifier, type);
+            } catch (InjectionException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Get a handle that asynchronously produces instances of T with the given qualifier.  Each
+     * call to {@link AsyncProvider#getAsync()} is equivalent to calling
+     * {@link #getInstanceAsync(Annotation, Class, Executor)}.
+     *
+     * @param <T> The object type
+     * @param qualifier The qualifier, or {@code null} for an unqualified instance
+     * @param type The class type
+     * @param executor The executor on which to construct components.
+     * @return An asynchronous provider of instances of type T.
+     * @since 0.11
+     */
+    @NotNull
+    default <T> AsyncProvider<T> getAsyncProvider(Annotation qualifier, Class<T> type, Executor executor) {
+        return () -> getInstanceAsync(qualifier, type, executor);
+    }
+
+    /**
+     * Create a child injector with additional bindings.  Bindings configured by the modules take
+     * precedence over this injector's bindings.  Injectors may share components that are not
+     * affected by the new bindings with the child.
+     * <p>
+     * The default implementation does not support child injectors.
+     *
+     * @param modules The modules configuring the child's additional bindings.
+     * @return The child injector.
+     * @throws InjectionException if there is an error resolving the child's configuration.
+     * @throws UnsupportedOperationException if this injector does not support child injectors.
+     * @since 0.11
+     */
+    default Injector createChild(Module... modules) throws InjectionException {
+        throw new UnsupportedOperationException("child injectors not supported");
+    }
+
     /**
      * Close the injector, shutting down any instantiated components that require shutdown.
      */
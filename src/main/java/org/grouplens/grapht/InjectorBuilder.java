@@ -30,6 +30,7 @@ import org.grouplens.grapht.solver.DefaultDesireBindingFunction;
 import org.grouplens.grapht.solver.DefaultInjector;
 import org.grouplens.grapht.solver.ProviderBindingFunction;
 import org.grouplens.grapht.context.ContextPattern;
+import org.grouplens.grapht.metrics.InjectorMetrics;
 import org.grouplens.grapht.util.ClassLoaders;
 import org.grouplens.grapht.util.Types;
 
@@ -53,6 +54,7 @@ public class InjectorBuilder extends AbstractContext {
     private final BindingFunctionBuilder builder;
     private CachePolicy cachePolicy;
     private boolean enableProviderInjection;
+    private InjectorMetrics metrics = InjectorMetrics.disabled();
 
     /**
      * Create a new injector builder.
@@ -134,6 +136,22 @@ public class InjectorBuilder extends AbstractContext {
         return this;
     }
     
+    /**
+     * Set the metrics to be recorded by injectors created by this builder.  By default, no
+     * metrics are recorded.
+     *
+     * @param m The metrics object, usually from {@link InjectorMetrics#create()}.
+     * @return This builder
+     * @since 0.11
+     */
+    public InjectorBuilder setMetrics(InjectorMetrics m) {
+        if (m == null) {
+            throw new NullPointerException("metrics");
+        }
+        metrics = m;
+        return this;
+    }
+
     @Override
     public <T> Binding<T> bind(Class<T> type) {
         return builder.getRootContext().bind(type);
@@ -210,6 +228,6 @@ public class InjectorBuilder extends AbstractContext {
             };
         }
         
-        return new DefaultInjector(cachePolicy, 100, functions);
+        return new DefaultInjector(cachePolicy, 100, metrics, functions);
     }
 }
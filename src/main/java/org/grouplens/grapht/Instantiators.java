@@ -27,6 +27,9 @@ package org.grouplens.grapht;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
 import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.grouplens.grapht.metrics.InjectorEvents;
+import org.grouplens.grapht.metrics.InjectorMetrics;
 import org.grouplens.grapht.util.LogContext;
 import org.grouplens.grapht.util.TypedProvider;
 import org.grouplens.grapht.util.Types;
@@ -34,6 +37,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Provider;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Utilities and methods for building and working with {@link org.grouplens.grapht.Instantiator}s.
@@ -119,6 +130,60 @@ public final class Instantiators {
         Preconditions.checkNotNull(instantiator, "instantiator");
         return new MemoizingInstantiator(instantiator);
     }
+
+    /**
+     * Memoize an instantiator separately for each thread.
+     * @param instantiator The instantiator to memoize.
+     * @return An instantiator that memoizes {@code instantiator} once per thread.
+     * @since 0.11
+     */
+    public static Instantiator threadLocal(Instantiator instantiator) {
+        Preconditions.checkNotNull(instantiator, "instantiator");
+        return new ThreadLocalInstantiator(instantiator);
+    }
+
+    /**
+     * Memoize an instantiator separately for each {@link Scope}.  The resulting instantiator
+     * can only be invoked while a scope is active.
+     * @param instantiator The instantiator to memoize.
+     * @return An instantiator that memoizes {@code instantiator} once per scope.
+     * @since 0.11
+     */
+    public static Instantiator scoped(Instantiator instantiator) {
+        Preconditions.checkNotNull(instantiator, "instantiator");
+        return new ScopedInstantiator(instantiator);
+    }
+
+    /**
+     * Time an instantiator, recording the latency of each instantiation in a metrics object.
+     * @param instantiator The instantiator to time.
+     * @param metrics The metrics in which to record construction latencies.
+     * @return An instantiator that records the latency of {@code instantiator}.
+     * @since 0.11
+     */
+    public static Instantiator timed(Instantiator instantiator, InjectorMetrics metrics) {
+        Preconditions.checkNotNull(instantiator, "instantiator");
+        Preconditions.checkNotNull(metrics, "metrics");
+        return new TimedInstantiator(instantiator, metrics);
+    }
+
+    /**
+     * Create an instantiator that defers instantiation until first use.  Its instances are
+     * proxies implementing {@code type} that invoke {@code instantiator} the first time one of
+     * their methods is called, and delegate all method calls to the resulting object.
+     *
+     * @param instantiator The instantiator to defer.
+     * @param type The interface to proxy.
+     * @return An instantiator returning lazy proxies.
+     * @throws IllegalArgumentException if {@code type} is not an interface.
+     * @since 0.11
+     */
+    public static Instantiator lazy(Instantiator instantiator, Class<?> type) {
+        Preconditions.checkNotNull(instantiator, "instantiator");
+        Preconditions.checkArgument(type.isInterface(), "lazy type %s is not an interface", type);
+        return new LazyInstantiator(instantiator, type);
+    }
+
     private static final class InstanceInstantiator implements Instantiator {
         private final Object instance;
         private final Class<?> type;
@@ -153,11 +218,14 @@ public final class Instantiators {
         public Object instantiate() throws ConstructionException {
             Provider<?> provider = (Provider) providerInstantiator.instantiate();
             logger.trace("invoking provider {}", provider);
+            Object event = InjectorEvents.begin(InjectorEvents.Kind.PROVIDER);
             try (LogContext mdcContextProvider = LogContext.create()) {
                 mdcContextProvider.put("org.grouplens.grapht.currentProvider", provider.toString());
                 return provider.get();
             } catch (Exception th) {
                 throw new ConstructionException(getType(), "Error invoking provider " + providerInstantiator, th);
+            } finally {
+                InjectorEvents.end(event, provider.getClass());
             }
         }
 
@@ -169,11 +237,42 @@ public final class Instantiators {
     }
 
 
+    /**
+     * Instantiator that records construction time in the injector metrics.
+     */
+    private static final class TimedInstantiator implements Instantiator {
+        private final Instantiator delegate;
+        private final InjectorMetrics metrics;
+
+        public TimedInstantiator(Instantiator inst, InjectorMetrics m) {
+            delegate = inst;
+            metrics = m;
+        }
+
+        @Override
+        public Object instantiate() throws ConstructionException {
+            long start = metrics.startTimer();
+            try {
+                return delegate.instantiate();
+            } finally {
+                metrics.recordConstruction(delegate.getType(), start);
+            }
+        }
+
+        @Override
+        public Class getType() {
+            return delegate.getType();
+        }
+    }
+
+    /**
+     * Instantiator that memoizes its delegate's result, including failures.  Construction is
+     * coordinated with a future per instantiator: the first thread to request the instance
+     * builds it, and other threads wait only for that instance rather than for a shared lock.
+     */
     private static class MemoizingInstantiator implements Instantiator {
         private final Instantiator delegate;
-        private volatile boolean instantiated = false;
-        private Object instance = null;
-        private Throwable error = null;
+        private final AtomicReference<Construction> construction = new AtomicReference<>();
 
         public MemoizingInstantiator(Instantiator inst) {
             delegate = inst;
@@ -181,25 +280,47 @@ public final class Instantiators {
 
         @Override
         public Object instantiate() throws ConstructionException {
-            if (!instantiated) {
-                synchronized (this) {
-                    if (!instantiated) {
-                        try {
-                            instance = delegate.instantiate();
-                        } catch (Exception th) {
-                            error = th;
-                        }
-                        instantiated = true;
-                    }
+            Construction current = construction.get();
+            if (current == null) {
+                Construction mine = new Construction();
+                if (construction.compareAndSet(null, mine)) {
+                    return build(mine);
                 }
+                current = construction.get();
+            }
+
+            if (current.builder == Thread.currentThread() && !current.result.isDone()) {
+                // re-entrant request (through a provider) while this thread is building the
+                // instance; waiting would deadlock, so build a fresh instance as the old
+                // monitor-based implementation did
+                logger.debug("re-entrant instantiation of {}", delegate.getType());
+                return delegate.instantiate();
             }
 
-            if (error != null) {
+            try {
+                return Uninterruptibles.getUninterruptibly(current.result);
+            } catch (ExecutionException e) {
+                Throwable error = e.getCause();
                 Throwables.propagateIfPossible(error, ConstructionException.class);
                 // shouldn't happen, but hey.
                 throw Throwables.propagate(error);
-            } else {
+            }
+        }
+
+        private Object build(Construction mine) throws ConstructionException {
+            try {
+                Object instance = delegate.instantiate();
+                mine.result.complete(instance);
                 return instance;
+            } catch (Exception th) {
+                // memoize the failure so later requests report the same error
+                mine.result.completeExceptionally(th);
+                throw th;
+            } catch (Throwable th) {
+                // errors are not memoized; let a later request try again
+                construction.compareAndSet(mine, null);
+                mine.result.completeExceptionally(th);
+                throw th;
             }
         }
 
@@ -209,6 +330,144 @@ public final class Instantiators {
         }
     }
 
+    /**
+     * A construction in progress (or completed) by a memoizing instantiator.
+     */
+    private static class Construction {
+        private final Thread builder = Thread.currentThread();
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+    }
+
+    private static class ThreadLocalInstantiator implements Instantiator {
+        private final Instantiator delegate;
+        private final ThreadLocal<Instantiator> local;
+
+        public ThreadLocalInstantiator(Instantiator inst) {
+            delegate = inst;
+            local = ThreadLocal.withInitial(() -> memoize(delegate));
+        }
+
+        @Override
+        public Object instantiate() throws ConstructionException {
+            return local.get().instantiate();
+        }
+
+        @Override
+        public Class getType() {
+            return delegate.getType();
+        }
+    }
+
+    private static class ScopedInstantiator implements Instantiator {
+        private final Instantiator delegate;
+
+        public ScopedInstantiator(Instantiator inst) {
+            delegate = inst;
+        }
+
+        @Override
+        public Object instantiate() throws ConstructionException {
+            Scope scope = Scope.current();
+            if (scope == null) {
+                throw new ConstructionException(getType(), "no scope is active for scoped component", null);
+            }
+            return scope.getInstantiator(this, delegate).instantiate();
+        }
+
+        @Override
+        public Class getType() {
+            return delegate.getType();
+        }
+    }
+
+    private static class LazyInstantiator implements Instantiator {
+        private final Instantiator delegate;
+        private final Class<?> type;
+
+        public LazyInstantiator(Instantiator inst, Class<?> type) {
+            delegate = inst;
+            this.type = type;
+        }
+
+        @Override
+        public Object instantiate() throws ConstructionException {
+            ClassLoader loader = type.getClassLoader();
+            if (loader == null) {
+                loader = Instantiators.class.getClassLoader();
+            }
+            return Proxy.newProxyInstance(loader, new Class<?>[]{type},
+                                          new LazyHandler(delegate));
+        }
+
+        @Override
+        public Class getType() {
+            return type;
+        }
+    }
+
+    /**
+     * Invocation handler for lazy proxies.  Each proxy instantiates its target at most once.
+     * The proxy implements {@code equals}, {@code hashCode} and {@code toString} itself, by
+     * identity, so that logging a lazy dependency or storing it in a collection does not
+     * instantiate it.
+     */
+    private static class LazyHandler implements InvocationHandler {
+        private final Instantiator instantiator;
+        private volatile Object target;
+
+        public LazyHandler(Instantiator itor) {
+            instantiator = itor;
+        }
+
+        private Object getTarget() {
+            Object obj = target;
+            if (obj == null) {
+                synchronized (this) {
+                    obj = target;
+                    if (obj == null) {
+                        logger.debug("instantiating lazy dependency {}", instantiator.getType());
+                        try {
+                            obj = instantiator.instantiate();
+                        } catch (ConstructionException ex) {
+                            throw new LazyConstructionException(ex);
+                        }
+                        if (obj == null) {
+                            throw new NullPointerException("lazy dependency " + instantiator.getType()
+                                                           + " was null");
+                        }
+                        target = obj;
+                    }
+                }
+            }
+            return obj;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass().equals(Object.class)) {
+                switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "lazy " + instantiator.getType().getName();
+                default:
+                    break;
+                }
+            }
+            if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                // methods of non-public interfaces cannot otherwise be invoked from here
+                method.setAccessible(true);
+            }
+            try {
+                return method.invoke(getTarget(), args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+    }
+
     private static class InstantiatorProvider implements TypedProvider {
         private final Instantiator instantiator;
 
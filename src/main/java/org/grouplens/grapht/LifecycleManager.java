@@ -25,16 +25,40 @@
 package org.grouplens.grapht;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.SetMultimap;
 import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.common.util.concurrent.UncheckedTimeoutException;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.apache.commons.lang3.tuple.Pair;
+import org.grouplens.grapht.graph.DAGEdge;
+import org.grouplens.grapht.graph.DAGNode;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Deque;
-import java.util.LinkedList;
+import java.util.*;
+import java.util.concurrent.*;
 
-public class LifecycleManager implements AutoCloseable {
+/**
+ * Tracks the components constructed by an injector and tears them down when it is closed.
+ * <p>
+ * Components registered with their graph node (see {@link #forNode(DAGNode)}) are shut down in
+ * reverse dependency order: a component is not closed until every registered component whose node
+ * depends on it has been closed. Components with no such relationship are closed in parallel on the
+ * {@linkplain #setExecutor(Executor) teardown executor}.  Components registered without a node are
+ * closed first, one at a time, in reverse registration order.
+ * <p>
+ * Registration is thread-safe, so components may be registered while being constructed concurrently.
+ */
+public class LifecycleManager implements ComponentRegistry, AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(LifecycleManager.class);
-    private Deque<TeardownAction> actions = new LinkedList<TeardownAction>();
+    private final List<Registration> actions = new ArrayList<Registration>();
+    private volatile Executor executor = ForkJoinPool.commonPool();
+    private volatile long timeoutNanos = 0;
 
     /**
      * Register a component with the lifecycle manager.  The component will be torn down when the lifecycle manager
@@ -42,14 +66,86 @@ public class LifecycleManager implements AutoCloseable {
      *
      * @param instance The component to register.
      */
+    @Override
     public void registerComponent(Object instance) {
+        registerComponent(instance, null);
+    }
+
+    /**
+     * Register a component with the lifecycle manager, recording the graph node it was built from.
+     *
+     * @param instance The component to register.
+     * @param node     The node that produced the component, or {@code null} if it is not known.
+     * @since 0.11
+     */
+    public void registerComponent(Object instance, @Nullable DAGNode<Component, Dependency> node) {
         if (instance == null) {
             return;
         }
 
         if (instance instanceof AutoCloseable) {
-            actions.add(new CloseAction((AutoCloseable) instance));
+            Registration reg = new Registration(new CloseAction((AutoCloseable) instance), node);
+            synchronized (actions) {
+                actions.add(reg);
+            }
+        }
+    }
+
+    /**
+     * Get a registry that registers components with this manager, recording the given node with
+     * each of them.  This is what satisfactions receive, so components they build are torn down in
+     * dependency order.
+     *
+     * @param node The node whose components will be registered.
+     * @return A registry registering components with this manager.
+     * @since 0.11
+     */
+    public ComponentRegistry forNode(DAGNode<Component, Dependency> node) {
+        return instance -> registerComponent(instance, node);
+    }
+
+    /**
+     * Get a lifecycle manager that registers components with a registry.  This adapts registries
+     * for satisfactions that only implement the deprecated
+     * {@link org.grouplens.grapht.reflect.Satisfaction#makeInstantiator(Map, LifecycleManager)};
+     * configuring or closing the returned manager does not affect the registry.
+     *
+     * @param registry The registry to receive components.
+     * @return A lifecycle manager forwarding registrations to {@code registry}.
+     * @since 0.11
+     */
+    public static LifecycleManager forwardingTo(ComponentRegistry registry) {
+        return new ForwardingManager(registry);
+    }
+
+    /**
+     * Set the executor used to close independent components in parallel.  The default is the common
+     * fork-join pool.
+     *
+     * @param exec The executor to use.
+     * @since 0.11
+     */
+    public void setExecutor(Executor exec) {
+        if (exec == null) {
+            throw new NullPointerException("executor");
         }
+        executor = exec;
+    }
+
+    /**
+     * Set how long {@link #close()} waits for components to shut down.  If the timeout elapses,
+     * {@link #close()} throws an {@link UncheckedTimeoutException}; components still shutting down
+     * are left to finish in the background.
+     *
+     * @param timeout The timeout, or 0 to wait indefinitely (the default).
+     * @param unit    The unit of {@code timeout}.
+     * @since 0.11
+     */
+    public void setTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("negative timeout");
+        }
+        timeoutNanos = unit.toNanos(timeout);
     }
 
     /**
@@ -58,21 +154,144 @@ public class LifecycleManager implements AutoCloseable {
     @SuppressWarnings("squid:S1181") // catch Throwable - OK b/c we use it for ensuring cleanup
     @Override
     public void close() {
-        Throwable error = null;
-        while (!actions.isEmpty()) {
-            TeardownAction action = actions.removeFirst();
-            try {
-                action.destroy();
-            } catch (Throwable th) {
-                if (error == null) {
-                    error = th;
+        List<Registration> regs;
+        synchronized (actions) {
+            regs = new ArrayList<Registration>(actions);
+            actions.clear();
+        }
+        if (regs.isEmpty()) {
+            return;
+        }
+
+        List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        List<Registration> tracked = new ArrayList<Registration>(regs.size());
+        for (Registration reg: Lists.reverse(regs)) {
+            if (reg.node == null) {
+                reg.run(errors);
+            } else {
+                tracked.add(reg);
+            }
+        }
+
+        if (!tracked.isEmpty()) {
+            awaitTeardown(scheduleTeardown(tracked, errors), tracked.size(), errors);
+        }
+
+        if (!errors.isEmpty()) {
+            Throwable error = null;
+            synchronized (errors) {
+                for (Throwable th: errors) {
+                    if (error == null) {
+                        error = th;
+                    } else {
+                        error.addSuppressed(th);
+                    }
+                }
+            }
+            throw Throwables.propagate(error);
+        }
+    }
+
+    /**
+     * Schedule the teardown of node-tracked components so each runs after its dependents.
+     * @param tracked The registrations, in reverse registration order.
+     * @param errors The list to receive teardown failures.
+     * @return A future completing when all components are torn down.
+     */
+    private CompletableFuture<Void> scheduleTeardown(List<Registration> tracked, final List<Throwable> errors) {
+        ListMultimap<DAGNode<Component, Dependency>, Registration> byNode = ArrayListMultimap.create();
+        for (Registration reg: tracked) {
+            byNode.put(reg.node, reg);
+        }
+
+        // Walk the graph below the tracked nodes once, recording each node's dependents.  The
+        // walk finishes every node after its dependencies, so the reverse of that order puts each
+        // node after all of its dependents.
+        SetMultimap<DAGNode<Component, Dependency>, DAGNode<Component, Dependency>> dependents =
+                HashMultimap.create();
+        List<DAGNode<Component, Dependency>> finished = new ArrayList<DAGNode<Component, Dependency>>();
+        Set<DAGNode<Component, Dependency>> seen = new HashSet<DAGNode<Component, Dependency>>();
+        Deque<Pair<DAGNode<Component, Dependency>, Iterator<DAGEdge<Component, Dependency>>>> stack =
+                new ArrayDeque<Pair<DAGNode<Component, Dependency>, Iterator<DAGEdge<Component, Dependency>>>>();
+        for (DAGNode<Component, Dependency> start: byNode.keySet()) {
+            if (!seen.add(start)) {
+                continue;
+            }
+            stack.push(Pair.of(start, start.getOutgoingEdges().iterator()));
+            while (!stack.isEmpty()) {
+                Pair<DAGNode<Component, Dependency>, Iterator<DAGEdge<Component, Dependency>>> top = stack.peek();
+                if (top.getRight().hasNext()) {
+                    DAGNode<Component, Dependency> tail = top.getRight().next().getTail();
+                    dependents.put(tail, top.getLeft());
+                    if (seen.add(tail)) {
+                        stack.push(Pair.of(tail, tail.getOutgoingEdges().iterator()));
+                    }
                 } else {
-                    error.addSuppressed(th);
+                    finished.add(stack.pop().getLeft());
                 }
             }
         }
-        if (error != null) {
-            throw Throwables.propagate(error);
+
+        // Each node's future completes once its own components and all of its dependents' are
+        // closed.  Nodes without components just pass their dependents' completion along.
+        Executor exec = executor;
+        Map<DAGNode<Component, Dependency>, CompletableFuture<Void>> done =
+                new HashMap<DAGNode<Component, Dependency>, CompletableFuture<Void>>();
+        List<CompletableFuture<Void>> closing = new ArrayList<CompletableFuture<Void>>(tracked.size());
+        for (DAGNode<Component, Dependency> node: Lists.reverse(finished)) {
+            Set<DAGNode<Component, Dependency>> parents = dependents.get(node);
+            CompletableFuture<Void> ready;
+            if (parents.isEmpty()) {
+                ready = CompletableFuture.completedFuture(null);
+            } else if (parents.size() == 1) {
+                ready = done.get(parents.iterator().next());
+            } else {
+                CompletableFuture<?>[] waits = new CompletableFuture<?>[parents.size()];
+                int i = 0;
+                for (DAGNode<Component, Dependency> parent: parents) {
+                    waits[i++] = done.get(parent);
+                }
+                ready = CompletableFuture.allOf(waits);
+            }
+
+            List<Registration> regs = byNode.get(node);
+            if (regs.isEmpty()) {
+                done.put(node, ready);
+            } else {
+                CompletableFuture<?>[] closed = new CompletableFuture<?>[regs.size()];
+                for (int i = 0; i < closed.length; i++) {
+                    final Registration reg = regs.get(i);
+                    CompletableFuture<Void> f = ready.thenRunAsync(() -> reg.run(errors), exec);
+                    closing.add(f);
+                    closed[i] = f;
+                }
+                done.put(node, closed.length == 1 ? closing.get(closing.size() - 1)
+                                                  : CompletableFuture.allOf(closed));
+            }
+        }
+        return CompletableFuture.allOf(closing.toArray(new CompletableFuture<?>[closing.size()]));
+    }
+
+    private void awaitTeardown(CompletableFuture<Void> done, int count, List<Throwable> errors) {
+        long timeout = timeoutNanos;
+        try {
+            if (timeout > 0) {
+                Uninterruptibles.getUninterruptibly(done, timeout, TimeUnit.NANOSECONDS);
+            } else {
+                Uninterruptibles.getUninterruptibly(done);
+            }
+        } catch (ExecutionException e) {
+            // only if the executor rejected a task
+            errors.add(e.getCause());
+        } catch (TimeoutException e) {
+            UncheckedTimeoutException ex =
+                    new UncheckedTimeoutException("timed out shutting down " + count + " components");
+            synchronized (errors) {
+                for (Throwable th: errors) {
+                    ex.addSuppressed(th);
+                }
+            }
+            throw ex;
         }
     }
 
@@ -100,4 +319,43 @@ public class LifecycleManager implements AutoCloseable {
             }
         }
     }
+
+    /**
+     * A teardown action with the node of the component it tears down.
+     */
+    private static class Registration {
+        private final TeardownAction action;
+        @Nullable
+        private final DAGNode<Component, Dependency> node;
+
+        Registration(TeardownAction act, @Nullable DAGNode<Component, Dependency> n) {
+            action = act;
+            node = n;
+        }
+
+        @SuppressWarnings("squid:S1181") // catch Throwable - OK b/c we use it for ensuring cleanup
+        void run(List<Throwable> errors) {
+            try {
+                action.destroy();
+            } catch (Throwable th) {
+                errors.add(th);
+            }
+        }
+    }
+
+    /**
+     * Lifecycle manager that forwards registrations to a component registry.
+     */
+    private static class ForwardingManager extends LifecycleManager {
+        private final ComponentRegistry registry;
+
+        ForwardingManager(ComponentRegistry reg) {
+            registry = reg;
+        }
+
+        @Override
+        public void registerComponent(Object instance, @Nullable DAGNode<Component, Dependency> node) {
+            registry.registerComponent(instance);
+        }
+    }
 }
@@ -0,0 +1,360 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht;
+
+import com.google.common.base.Charsets;
+import org.grouplens.grapht.annotation.AnnotationBuilder;
+import org.grouplens.grapht.graph.DAGEdge;
+import org.grouplens.grapht.graph.DAGNode;
+import org.grouplens.grapht.reflect.AbstractSatisfactionVisitor;
+import org.grouplens.grapht.reflect.InjectionPoint;
+import org.grouplens.grapht.util.ClassChecksums;
+import org.grouplens.grapht.util.Types;
+import org.jetbrains.annotations.Nullable;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import java.io.*;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * GraalVM {@code native-image} configuration for a solved dependency graph.  Grapht creates
+ * components by reflection, which a native image only supports for classes and members that
+ * are registered at build time.  This class walks a graph and collects exactly what the
+ * injector needs to instantiate it:
+ *
+ * <ul>
+ * <li>the constructors, fields, and methods used to inject each class and provider class,
+ * including no-argument {@link Inject} methods;</li>
+ * <li>reflective queries on the classes and their superclasses, so the solver can inspect
+ * their injection points at run time;</li>
+ * <li>qualifier annotation types, and dynamic proxies for qualifiers created by
+ * {@link org.grouplens.grapht.annotation.AnnotationBuilder};</li>
+ * <li>dynamic proxies for interfaces injected {@linkplain Dependency#isLazy() lazily};</li>
+ * <li>the {@code META-INF/grapht} resources consulted for defaults and checksums.</li>
+ * </ul>
+ *
+ * <p>Only qualifiers that appear in the graph are registered; an application that builds other
+ * qualifiers at run time, for example to match bindings, must register their proxies itself.</p>
+ *
+ * <p>The files written by {@link #writeTo(File)} should be packaged under
+ * {@code META-INF/native-image/<group>/<artifact>/}, where {@code native-image} picks them
+ * up automatically.</p>
+ *
+ * @since 0.11
+ * @author <a href="http://grouplens.org">GroupLens Research</a>
+ */
+public final class NativeImageConfiguration {
+    private static final String DEFAULTS_RESOURCE = "META-INF/grapht/defaults/";
+
+    private final SortedMap<String, ClassEntry> classes = new TreeMap<String, ClassEntry>();
+    private final SortedSet<String> proxies = new TreeSet<String>();
+    private final SortedSet<String> resources = new TreeSet<String>();
+
+    private NativeImageConfiguration() {
+        resources.add(ClassChecksums.CHECKSUM_RESOURCE);
+    }
+
+    /**
+     * Compute the native image configuration for a solved graph.
+     *
+     * @param root The root of the graph, as returned by
+     *             {@link org.grouplens.grapht.solver.DependencySolver#getGraph()}.
+     * @return The configuration needed to instantiate every component in the graph.
+     */
+    public static NativeImageConfiguration fromGraph(DAGNode<Component, Dependency> root) {
+        NativeImageConfiguration config = new NativeImageConfiguration();
+        for (DAGNode<Component, Dependency> node: root.getReachableNodes()) {
+            config.addNode(node);
+        }
+        return config;
+    }
+
+    /**
+     * Get the names of the classes registered for reflection.
+     *
+     * @return The class names, in sorted order.
+     */
+    public Set<String> getReflectedClasses() {
+        return Collections.unmodifiableSet(classes.keySet());
+    }
+
+    /**
+     * Get the interface lists of the dynamic proxies to register.
+     *
+     * @return The proxy interface names, in sorted order.
+     */
+    public Set<String> getProxyInterfaces() {
+        return Collections.unmodifiableSet(proxies);
+    }
+
+    private void addNode(DAGNode<Component, Dependency> node) {
+        Class<?> type = node.getLabel().getSatisfaction().visit(new InstantiatedClass());
+        List<InjectionPoint> points = new ArrayList<InjectionPoint>();
+        for (DAGEdge<Component, Dependency> edge: node.getOutgoingEdges()) {
+            InjectionPoint ip = edge.getLabel().getInitialDesire().getInjectionPoint();
+            points.add(ip);
+            addQualifier(ip.getQualifier());
+            addDefaultsResource(ip.getErasedType());
+            // lazy interface dependencies are injected as dynamic proxies
+            if (edge.getLabel().isLazy() && ip.getErasedType().isInterface()) {
+                proxies.add(ip.getErasedType().getName());
+            }
+        }
+        if (type == null) {
+            return;
+        }
+
+        for (Class<?> cls = type; cls != null && cls != Object.class; cls = cls.getSuperclass()) {
+            entry(cls).queryAll = true;
+        }
+
+        boolean hasConstructor = false;
+        for (InjectionPoint ip: points) {
+            Member member = ip.getMember();
+            if (member instanceof Constructor) {
+                entry(member.getDeclaringClass()).constructors.add((Constructor<?>) member);
+                hasConstructor = true;
+            } else if (member instanceof Method) {
+                entry(member.getDeclaringClass()).methods.add((Method) member);
+            } else if (member instanceof Field) {
+                entry(member.getDeclaringClass()).fields.add((Field) member);
+            }
+        }
+        if (!hasConstructor) {
+            try {
+                entry(type).constructors.add(type.getDeclaredConstructor());
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException(type + " has no injectable constructor", e);
+            }
+        }
+        for (Method m: Types.getUniqueMethods(type)) {
+            if (m.getAnnotation(Inject.class) != null && m.getParameterCount() == 0) {
+                entry(m.getDeclaringClass()).methods.add(m);
+            }
+        }
+    }
+
+    private void addQualifier(@Nullable Annotation qualifier) {
+        if (qualifier == null) {
+            return;
+        }
+        Class<? extends Annotation> atype = qualifier.annotationType();
+        entry(atype).queryAll = true;
+        entry(atype).allPublicMethods = true;
+        if (AnnotationBuilder.isBuilt(qualifier)) {
+            proxies.add(atype.getName());
+        }
+    }
+
+    private void addDefaultsResource(Class<?> type) {
+        String name = type.getCanonicalName();
+        if (name != null) {
+            resources.add(DEFAULTS_RESOURCE + name + ".properties");
+        }
+    }
+
+    private ClassEntry entry(Class<?> type) {
+        ClassEntry e = classes.get(type.getName());
+        if (e == null) {
+            e = new ClassEntry();
+            classes.put(type.getName(), e);
+        }
+        return e;
+    }
+
+    /**
+     * Write the reflection configuration ({@code reflect-config.json}).
+     *
+     * @param out The writer to write to.
+     * @throws IOException if there is an error writing the configuration.
+     */
+    public void writeReflectionConfig(Writer out) throws IOException {
+        out.write("[");
+        boolean first = true;
+        for (Map.Entry<String, ClassEntry> e: classes.entrySet()) {
+            out.write(first ? "\n" : ",\n");
+            first = false;
+            e.getValue().write(e.getKey(), out);
+        }
+        out.write("\n]\n");
+    }
+
+    /**
+     * Write the dynamic proxy configuration ({@code proxy-config.json}).
+     *
+     * @param out The writer to write to.
+     * @throws IOException if there is an error writing the configuration.
+     */
+    public void writeProxyConfig(Writer out) throws IOException {
+        out.write("[");
+        boolean first = true;
+        for (String iface: proxies) {
+            out.write(first ? "\n" : ",\n");
+            first = false;
+            out.write("  {\"interfaces\": [" + quote(iface) + "]}");
+        }
+        out.write("\n]\n");
+    }
+
+    /**
+     * Write the resource configuration ({@code resource-config.json}).
+     *
+     * @param out The writer to write to.
+     * @throws IOException if there is an error writing the configuration.
+     */
+    public void writeResourceConfig(Writer out) throws IOException {
+        out.write("{\n  \"resources\": {\n    \"includes\": [");
+        boolean first = true;
+        for (String res: resources) {
+            out.write(first ? "\n" : ",\n");
+            first = false;
+            out.write("      {\"pattern\": " + quote(Pattern.quote(res)) + "}");
+        }
+        out.write("\n    ]\n  }\n}\n");
+    }
+
+    /**
+     * Write the reflection, proxy, and resource configuration files to a directory.
+     *
+     * @param directory The directory to write to; it is created if it does not exist.
+     * @throws IOException if there is an error writing the configuration.
+     */
+    public void writeTo(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("cannot create directory " + directory);
+        }
+        try (Writer out = openFile(directory, "reflect-config.json")) {
+            writeReflectionConfig(out);
+        }
+        try (Writer out = openFile(directory, "proxy-config.json")) {
+            writeProxyConfig(out);
+        }
+        try (Writer out = openFile(directory, "resource-config.json")) {
+            writeResourceConfig(out);
+        }
+    }
+
+    private static Writer openFile(File directory, String name) throws IOException {
+        return new OutputStreamWriter(new FileOutputStream(new File(directory, name)),
+                                      Charsets.UTF_8);
+    }
+
+    static String quote(String str) {
+        StringBuilder sb = new StringBuilder(str.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Find the class the injector instantiates reflectively for a satisfaction.
+     */
+    private static class InstantiatedClass extends AbstractSatisfactionVisitor<Class<?>> {
+        @Override
+        public Class<?> visitClass(Class<?> clazz) {
+            return clazz;
+        }
+
+        @Override
+        public Class<?> visitProviderClass(Class<? extends Provider<?>> pclass) {
+            return pclass;
+        }
+    }
+
+    /**
+     * The reflective access needed for a single class.
+     */
+    private static class ClassEntry {
+        boolean queryAll;
+        boolean allPublicMethods;
+        final Set<Constructor<?>> constructors = new LinkedHashSet<Constructor<?>>();
+        final Set<Method> methods = new LinkedHashSet<Method>();
+        final Set<Field> fields = new LinkedHashSet<Field>();
+
+        void write(String name, Writer out) throws IOException {
+            out.write("  {\n    \"name\": " + quote(name));
+            if (queryAll) {
+                out.write(",\n    \"queryAllDeclaredConstructors\": true");
+                out.write(",\n    \"queryAllDeclaredMethods\": true");
+            }
+            if (allPublicMethods) {
+                out.write(",\n    \"allPublicMethods\": true");
+            }
+            if (!fields.isEmpty()) {
+                List<String> names = new ArrayList<String>();
+                for (Field f: fields) {
+                    names.add("{\"name\": " + quote(f.getName()) + "}");
+                }
+                writeList("fields", names, out);
+            }
+            if (!constructors.isEmpty() || !methods.isEmpty()) {
+                List<String> sigs = new ArrayList<String>();
+                for (Constructor<?> c: constructors) {
+                    sigs.add(signature("<init>", c.getParameterTypes()));
+                }
+                for (Method m: methods) {
+                    sigs.add(signature(m.getName(), m.getParameterTypes()));
+                }
+                writeList("methods", sigs, out);
+            }
+            out.write("\n  }");
+        }
+
+        private static String signature(String name, Class<?>[] params) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("{\"name\": ").append(quote(name)).append(", \"parameterTypes\": [");
+            for (int i = 0; i < params.length; i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(quote(params[i].getTypeName()));
+            }
+            return sb.append("]}").toString();
+        }
+
+        private static void writeList(String key, List<String> items, Writer out) throws IOException {
+            Collections.sort(items);
+            out.write(",\n    " + quote(key) + ": [");
+            for (int i = 0; i < items.size(); i++) {
+                out.write(i > 0 ? ",\n      " : "\n      ");
+                out.write(items.get(i));
+            }
+            out.write("\n    ]");
+        }
+    }
+}
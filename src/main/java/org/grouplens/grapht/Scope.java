@@ -0,0 +1,164 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht;
+
+import com.google.common.base.Preconditions;
+import org.grouplens.grapht.graph.DAGNode;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A user-managed scope for components with the {@link CachePolicy#SCOPED} cache policy, such as
+ * a request or a batch.  Each scope holds its own instance of every scoped component built while
+ * it is active, and shuts those components down when it is closed.
+ * <p>
+ * A scope is active on a thread between a call to {@link #enter()} and the close of the
+ * returned activation:
+ *
+ * <pre>
+ * try (Scope scope = Scope.create();
+ *      Scope.Activation act = scope.enter()) {
+ *     Handler h = injector.getInstance(Handler.class);
+ *     // ...
+ * }
+ * </pre>
+ *
+ * @since 0.11
+ * @author <a href="http://grouplens.org">GroupLens Research</a>
+ */
+public class Scope implements AutoCloseable {
+    private static final ThreadLocal<Scope> currentScope = new ThreadLocal<>();
+
+    private final Map<Object, Instantiator> instantiators = new ConcurrentHashMap<>();
+    private final LifecycleManager manager = new LifecycleManager();
+    private volatile boolean closed = false;
+
+    private Scope() {}
+
+    /**
+     * Create a new scope.
+     * @return A new, inactive scope.
+     */
+    public static Scope create() {
+        return new Scope();
+    }
+
+    /**
+     * Get the scope active on the current thread.
+     * @return The active scope, or {@code null} if no scope is active.
+     */
+    @Nullable
+    public static Scope current() {
+        return currentScope.get();
+    }
+
+    /**
+     * Activate this scope on the current thread.  The previously-active scope, if any, is
+     * restored when the activation is closed.
+     *
+     * @return The activation, to be closed when the scope should no longer be active.
+     * @throws IllegalStateException if the scope has been closed.
+     */
+    public Activation enter() {
+        Preconditions.checkState(!closed, "scope is closed");
+        Activation act = new Activation(this, currentScope.get());
+        currentScope.set(this);
+        return act;
+    }
+
+    /**
+     * Get the lifecycle manager for components instantiated in this scope.
+     * @return The scope's lifecycle manager.
+     */
+    public LifecycleManager getLifecycleManager() {
+        return manager;
+    }
+
+    /**
+     * Get this scope's memoized instantiator for a scoped instantiator.
+     *
+     * @param key The scoped instantiator.
+     * @param raw The underlying instantiator to memoize within this scope.
+     * @return The memoized instantiator.
+     */
+    Instantiator getInstantiator(Object key, Instantiator raw) {
+        Preconditions.checkState(!closed, "scope is closed");
+        return instantiators.computeIfAbsent(key, k -> Instantiators.memoize(raw));
+    }
+
+    /**
+     * Close the scope, shutting down all components instantiated within it.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        instantiators.clear();
+        manager.close();
+    }
+
+    /**
+     * An activation of a scope on a thread.
+     */
+    public static final class Activation implements AutoCloseable {
+        private final Scope scope;
+        private final Scope previous;
+
+        private Activation(Scope scope, Scope previous) {
+            this.scope = scope;
+            this.previous = previous;
+        }
+
+        /**
+         * Deactivate the scope, restoring the previously-active scope.
+         */
+        @Override
+        public void close() {
+            Preconditions.checkState(currentScope.get() == scope, "scope activations not properly nested");
+            if (previous == null) {
+                currentScope.remove();
+            } else {
+                currentScope.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Get a registry that registers components with the scope active at registration time,
+     * recording the given node with each of them.
+     *
+     * @param node The node whose components will be registered.
+     * @return The registry.
+     */
+    static ComponentRegistry registryFor(final DAGNode<Component, Dependency> node) {
+        return instance -> {
+            Scope scope = current();
+            if (scope != null) {
+                scope.getLifecycleManager().registerComponent(instance, node);
+            }
+        };
+    }
+}
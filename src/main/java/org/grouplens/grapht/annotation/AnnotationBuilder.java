@@ -24,6 +24,8 @@
  */
 package org.grouplens.grapht.annotation;
 
+import org.grouplens.grapht.util.Interning;
+
 import javax.inject.Named;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
@@ -83,6 +85,18 @@ public final class AnnotationBuilder<T extends Annotation> {
         attributes = new HashMap<String, Object>();
     }
 
+    /**
+     * Query whether an annotation was created by an annotation builder.
+     *
+     * @param annot The annotation.
+     * @return {@code true} if {@code annot} is a proxy created by {@link #build()}.
+     * @since 0.11
+     */
+    public static boolean isBuilt(Annotation annot) {
+        return annot != null && Proxy.isProxyClass(annot.getClass())
+               && Proxy.getInvocationHandler(annot) instanceof AnnotationProxy;
+    }
+
     /**
      * Constructor method to allow the builder type to be inferred.
      * @param annotType The annotation type to build.
@@ -597,6 +611,10 @@ public final class AnnotationBuilder<T extends Annotation> {
      * If attributes have a default value and the value was not overridden by
      * the builder's configuration, then the default will be returned by the
      * annotation instance.
+     * <p>
+     * Built annotations are interned: building an annotation equal to one that
+     * is still in use returns the existing instance, so comparisons between
+     * built qualifiers usually succeed on identity alone.
      * 
      * @return An instance of T with the attribute values specified on this
      *         builder
@@ -613,7 +631,8 @@ public final class AnnotationBuilder<T extends Annotation> {
                 }
             }
         }
-        return type.cast(Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { type }, 
-                                                new AnnotationProxy<T>(type, attributes)));
+        T proxy = type.cast(Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { type },
+                                                   new AnnotationProxy<T>(type, attributes)));
+        return Interning.intern(proxy);
     }
 }
@@ -33,14 +33,20 @@ import java.io.*;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.util.Arrays;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Proxy used to implement annotation interfaces.  It implements the {@link Annotation}
  * contract by delegating to a map of named attribute values.  A new AnnotationProxy instance
  * should be created for each proxy annotation.
  *
+ * <p>The proxy is immutable, so its hash code and string form are computed once and cached.
+ * Two proxies are compared directly by their attribute values (with defaults filled in),
+ * without the reflective method calls needed to compare against arbitrary annotations.</p>
+ *
  * @see AnnotationBuilder
  */
 class AnnotationProxy<T extends Annotation> implements InvocationHandler, Serializable {
@@ -48,6 +54,9 @@ class AnnotationProxy<T extends Annotation> implements InvocationHandler, Serial
     private final ClassProxy annotationType;
     private final ImmutableMap<String, Object> attributes;
     private transient Class<T> cachedType;
+    private transient volatile ImmutableMap<String, Object> cachedValues;
+    private transient volatile Integer cachedHashCode;
+    private transient volatile String cachedString;
 
     public AnnotationProxy(Class<T> type, Map<String, Object> attrs) {
         annotationType = ClassProxy.of(type);
@@ -122,15 +131,81 @@ class AnnotationProxy<T extends Annotation> implements InvocationHandler, Serial
     }
 
     private String proxyToString(Object o) {
-        return AnnotationUtils.toString((Annotation) o);
+        String str = cachedString;
+        if (str == null) {
+            str = AnnotationUtils.toString((Annotation) o);
+            cachedString = str;
+        }
+        return str;
     }
 
     private int proxyHashCode(Object proxy) {
-        return AnnotationUtils.hashCode((Annotation) proxy);
+        Integer hash = cachedHashCode;
+        if (hash == null) {
+            hash = AnnotationUtils.hashCode((Annotation) proxy);
+            cachedHashCode = hash;
+        }
+        return hash;
     }
 
     private boolean proxyEquals(Object o1, Object o2) {
-        return AnnotationUtils.equals((Annotation) o1, (Annotation) o2);
+        if (o1 == o2) {
+            return true;
+        }
+        AnnotationProxy<?> other = getHandler(o2);
+        if (other == null) {
+            // not one of ours, compare reflectively
+            return AnnotationUtils.equals((Annotation) o1, (Annotation) o2);
+        }
+        if (!cachedType.equals(other.cachedType)
+                || proxyHashCode(o1) != other.proxyHashCode(o2)) {
+            return false;
+        }
+        Map<String, Object> mine = getValues();
+        Map<String, Object> theirs = other.getValues();
+        for (Map.Entry<String, Object> e: mine.entrySet()) {
+            if (!Objects.deepEquals(e.getValue(), theirs.get(e.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the values of all attributes of the annotation type, with unset attributes taking
+     * their declared defaults.
+     *
+     * @return The complete attribute values.
+     */
+    private ImmutableMap<String, Object> getValues() {
+        ImmutableMap<String, Object> values = cachedValues;
+        if (values == null) {
+            ImmutableMap.Builder<String, Object> bld = ImmutableMap.builder();
+            for (Method m: cachedType.getDeclaredMethods()) {
+                Object value = attributes.get(m.getName());
+                bld.put(m.getName(), value != null ? value : m.getDefaultValue());
+            }
+            values = bld.build();
+            cachedValues = values;
+        }
+        return values;
+    }
+
+    /**
+     * Get the annotation proxy handler backing an object.
+     *
+     * @param o The object.
+     * @return The annotation proxy implementing {@code o}, or {@code null} if {@code o} is not
+     *         an annotation proxy.
+     */
+    private static AnnotationProxy<?> getHandler(Object o) {
+        if (o != null && Proxy.isProxyClass(o.getClass())) {
+            InvocationHandler handler = Proxy.getInvocationHandler(o);
+            if (handler instanceof AnnotationProxy) {
+                return (AnnotationProxy<?>) handler;
+            }
+        }
+        return null;
     }
 
     /**
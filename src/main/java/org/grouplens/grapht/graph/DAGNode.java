@@ -65,6 +65,10 @@ import java.util.stream.StreamSupport;
 @Immutable
 public class DAGNode<V,E> implements Serializable {
     private static final long serialVersionUID = 1L;
+    /**
+     * Nodes with fewer edges than this are scanned rather than indexed by {@link #getOutgoingEdgeByKey}.
+     */
+    private static final int INDEX_THRESHOLD = 8;
 
     @NotNull
     @SuppressWarnings("squid:S1948") // serializable warning; node is serializable iff its label type is
@@ -72,9 +76,14 @@ public class DAGNode<V,E> implements Serializable {
     @NotNull
     private final ImmutableSet<DAGEdge<V,E>> outgoingEdges;
 
-    private transient Supplier<SetMultimap<DAGNode<V,E>,DAGEdge<V,E>>> reverseEdgeCache;
+    private transient Supplier<ReverseEdgeIndex<V,E>> reverseEdgeCache;
     private transient Supplier<Set<DAGNode<V,E>>> reachableNodeCache;
     private transient Supplier<List<DAGNode<V,E>>> topologicalSortCache;
+    /**
+     * The most recent keyed edge index, paired with the key function that built it.
+     */
+    @Nullable
+    private transient volatile Pair<Function<? super E, ?>, Map<Object, DAGEdge<V,E>>> edgeIndex;
 
     /**
      * Create a new DAG node with no outgoing edges.
@@ -145,7 +154,7 @@ public class DAGNode<V,E> implements Serializable {
      * Initialize caches for traversing this node.
      */
     private void initializeCaches() {
-        reverseEdgeCache = Suppliers.memoize(new EdgeMapSupplier());
+        reverseEdgeCache = Suppliers.memoize(() -> ReverseEdgeIndex.build(this));
         reachableNodeCache = Suppliers.memoize(new NodeSetSupplier());
         topologicalSortCache = Suppliers.memoize(new TopologicalSortSupplier());
     }
@@ -225,6 +234,47 @@ public class DAGNode<V,E> implements Serializable {
                             .orElse(null);
     }
 
+    /**
+     * Look up an outgoing edge by a key computed from its label.  The first lookup with a key
+     * function builds a hash index of this node's edges, which later lookups with the same
+     * function (by identity) reuse; callers should therefore use a shared function constant.  Nodes
+     * with only a few edges are scanned instead of indexed.  The key function may return
+     * {@code null}; edges with a {@code null} key are left out of the index and found by scanning.
+     *
+     * @param keyFunction The function computing an edge's key from its label.
+     * @param key The key to look up (may be {@code null}).
+     * @param <K> The type of edge keys.
+     * @return An outgoing edge whose label has the key {@code key}, or {@code null} if no such edge
+     *         exists.  If multiple edges have the same key, it is undefined which one is returned.
+     * @since 0.11
+     */
+    @Nullable
+    public <K> DAGEdge<V,E> getOutgoingEdgeByKey(Function<? super E, ? extends K> keyFunction, @Nullable K key) {
+        if (key == null || outgoingEdges.size() < INDEX_THRESHOLD) {
+            for (DAGEdge<V,E> edge: outgoingEdges) {
+                if (Objects.equals(keyFunction.apply(edge.getLabel()), key)) {
+                    return edge;
+                }
+            }
+            return null;
+        }
+
+        Pair<Function<? super E, ?>, Map<Object, DAGEdge<V,E>>> index = edgeIndex;
+        if (index == null || index.getLeft() != keyFunction) {
+            Map<Object, DAGEdge<V,E>> map = Maps.newHashMapWithExpectedSize(outgoingEdges.size());
+            for (DAGEdge<V,E> edge: outgoingEdges) {
+                Object k = keyFunction.apply(edge.getLabel());
+                if (k != null) {
+                    map.putIfAbsent(k, edge);
+                }
+            }
+            index = Pair.<Function<? super E, ?>, Map<Object, DAGEdge<V,E>>>of(keyFunction, map);
+            // benign race: concurrent lookups may each build an identical index
+            edgeIndex = index;
+        }
+        return index.getRight().get(key);
+    }
+
     /**
      * Get the nodes that are adjacent to this node (only considering outgoing edges).
      * @return The set of adjacent nodes.
@@ -235,17 +285,6 @@ public class DAGNode<V,E> implements Serializable {
                             .collect(Collectors.toSet());
     }
 
-    /**
-     * Get a multimap of incoming edges.  For each node reachable from this node, the map will
-     * contain each of its incoming edges (also reachable from this graph).
-     *
-     * @return The reverse edge map.
-     */
-    @NotNull
-    private SetMultimap<DAGNode<V,E>,DAGEdge<V,E>> getIncomingEdgeMap() {
-        return reverseEdgeCache.get();
-    }
-
     @NotNull
     public Set<DAGNode<V,E>> getReachableNodes() {
         return reachableNodeCache.get();
@@ -268,28 +307,42 @@ public class DAGNode<V,E> implements Serializable {
     /**
      * Helper mode for {@link #getSortedNodes()}, via {@link TopologicalSortSupplier}.  This method
      * does a depth-first traversal of the nodes, adding each to the {@code visited} set when it is
-     * left.  This results in {@code visited} being a topological sort.
+     * left.  This results in {@code visited} being a topological sort.  The traversal uses an
+     * explicit stack, so deep graphs do not overflow the thread's stack.
      *
      * @param visited The set of nodes seen so far.
      */
     private void sortVisit(LinkedHashSet<DAGNode<V,E>> visited) {
-        if (!visited.contains(this)) {
-            for (DAGEdge<V,E> nbr: outgoingEdges) {
-                nbr.getTail().sortVisit(visited);
+        if (visited.contains(this)) {
+            return;
+        }
+        Deque<Pair<DAGNode<V,E>, Iterator<DAGEdge<V,E>>>> stack = new ArrayDeque<>();
+        stack.push(Pair.of(this, outgoingEdges.iterator()));
+        while (!stack.isEmpty()) {
+            Pair<DAGNode<V,E>, Iterator<DAGEdge<V,E>>> top = stack.peek();
+            if (top.getRight().hasNext()) {
+                DAGNode<V,E> tail = top.getRight().next().getTail();
+                if (!visited.contains(tail)) {
+                    stack.push(Pair.of(tail, tail.outgoingEdges.iterator()));
+                }
+            } else {
+                stack.pop();
+                // neighbors won't have added this, or we have an impossible cycle
+                assert !visited.contains(top.getLeft());
+                visited.add(top.getLeft());
             }
-            // neighbors won't have added this, or we have an impossible cycle
-            assert !visited.contains(this);
-            visited.add(this);
         }
     }
 
     /**
-     * Get the incoming edges to a node reachable from this node.
+     * Get the incoming edges to a node reachable from this node.  The first call indexes the
+     * incoming edges of every reachable node in one pass over the graph, and later calls on this
+     * node share that index.
      * @return The set of incoming edges, or an empty set if the node is not reachable.
      */
     @NotNull
     public Set<DAGEdge<V,E>> getIncomingEdges(DAGNode<V,E> node) {
-        return getIncomingEdgeMap().get(node);
+        return reverseEdgeCache.get().get(node);
     }
 
     /**
@@ -302,28 +355,104 @@ public class DAGNode<V,E> implements Serializable {
      *               that has to be replaced with the node that replaces it.  This map should
      *               usually be empty on the initial call to this method.  In particular, it should
      *               not contain any reachable nodes on the initial call, or unexpected behavior
-     *               may arise.  Recursive calls of this method to itself do contain such nodes.
+     *               may arise.
      * @return The graph with the replaced node.
      */
     public DAGNode<V,E> replaceNode(DAGNode<V,E> node, DAGNode<V,E> replacement,
                                     Map<DAGNode<V,E>,DAGNode<V,E>> memory) {
+        return replaceNode(node, replacement, memory, this::getIncomingEdges);
+    }
+
+    /**
+     * Replace one node with another in this graph, using a caller-maintained index of incoming
+     * edges to find the nodes that must be rebuilt.  Callers that replace nodes repeatedly can
+     * keep such an index up to date as the graph changes, instead of having each new graph index
+     * its incoming edges from scratch.
+     *
+     * @param node The node to replace.
+     * @param replacement The replacement node.
+     * @param memory A table to remember node replacements, as in
+     *               {@link #replaceNode(DAGNode, DAGNode, Map)}.
+     * @param incomingEdges A function returning the incoming edges of each node reachable from
+     *                      this node.
+     * @return The graph with the replaced node.
+     * @since 0.11
+     */
+    public DAGNode<V,E> replaceNode(DAGNode<V,E> node, DAGNode<V,E> replacement,
+                                    Map<DAGNode<V,E>,DAGNode<V,E>> memory,
+                                    Function<? super DAGNode<V,E>, ? extends Collection<DAGEdge<V,E>>> incomingEdges) {
         if (this.equals(node)) {
             memory.put(node, replacement);
             return replacement;
-        } else if (memory.containsKey(this)) {
-            // we have already been replaced, reuse the replacement
-            return memory.get(this);
-        } else if (getReachableNodes().contains(node)) {
-            DAGNodeBuilder<V,E> bld = newBuilder(label);
-            for (DAGEdge<V,E> edge: outgoingEdges) {
-                DAGNode<V,E> newTail = edge.getTail().replaceNode(node, replacement, memory);
-                bld.addEdge(newTail, edge.getLabel());
+        }
+        // the nodes that must be rebuilt are those from which node is reachable
+        Set<DAGNode<V,E>> ancestors = Sets.newHashSet();
+        Deque<DAGNode<V,E>> work = new ArrayDeque<>();
+        work.push(node);
+        while (!work.isEmpty()) {
+            for (DAGEdge<V,E> edge: incomingEdges.apply(work.pop())) {
+                if (ancestors.add(edge.getHead())) {
+                    work.push(edge.getHead());
+                }
             }
-            DAGNode<V,E> repl = bld.build();
-            memory.put(this, repl);
-            return repl;
+        }
+        DAGNode<V,E> result = replacementIfKnown(this, node, replacement, memory, ancestors);
+        if (result != null) {
+            return result;
+        }
+
+        // depth-first traversal with an explicit stack; each frame rebuilds one node
+        Deque<RebuildFrame<V,E>> stack = new ArrayDeque<>();
+        stack.push(new RebuildFrame<>(this));
+        while (true) {
+            RebuildFrame<V,E> top = stack.peek();
+            if (top.edges.hasNext()) {
+                DAGEdge<V,E> edge = top.edges.next();
+                DAGNode<V,E> newTail = replacementIfKnown(edge.getTail(), node, replacement,
+                                                          memory, ancestors);
+                if (newTail == null) {
+                    top.pending = edge;
+                    stack.push(new RebuildFrame<>(edge.getTail()));
+                } else {
+                    top.builder.addEdge(newTail, edge.getLabel());
+                }
+            } else {
+                stack.pop();
+                DAGNode<V,E> repl = top.builder.build();
+                memory.put(top.node, repl);
+                RebuildFrame<V,E> parent = stack.peek();
+                if (parent == null) {
+                    return repl;
+                }
+                parent.builder.addEdge(repl, parent.pending.getLabel());
+                parent.pending = null;
+            }
+        }
+    }
+
+    /**
+     * Helper for {@link #replaceNode(DAGNode, DAGNode, Map)} that determines a node's replacement
+     * without looking at its children, if possible.
+     *
+     * @param ancestors The nodes from which {@code node} is reachable.
+     * @return The node's replacement (possibly the node itself), or {@code null} if the node must
+     *         be rebuilt with replaced children.
+     */
+    @Nullable
+    private static <V,E> DAGNode<V,E> replacementIfKnown(DAGNode<V,E> current,
+                                                         DAGNode<V,E> node, DAGNode<V,E> replacement,
+                                                         Map<DAGNode<V,E>,DAGNode<V,E>> memory,
+                                                         Set<DAGNode<V,E>> ancestors) {
+        if (current.equals(node)) {
+            memory.put(node, replacement);
+            return replacement;
+        } else if (memory.containsKey(current)) {
+            // we have already been replaced, reuse the replacement
+            return memory.get(current);
+        } else if (ancestors.contains(current)) {
+            return null;
         } else {
-            return this;
+            return current;
         }
     }
 
@@ -389,46 +518,37 @@ public class DAGNode<V,E> implements Serializable {
      * @return The rewritten graph.
      */
     public DAGNode<V,E> transformEdges(Function<? super DAGEdge<V,E>, ? extends DAGEdge<V,E>> function) {
-        // builder for new node
-        DAGNodeBuilder<V,E> builder = null;
-        // intact edges (unmodified edges)
-        List<DAGEdge<V,E>> intact = Lists.newArrayListWithCapacity(outgoingEdges.size());
-        for (DAGEdge<V,E> edge: outgoingEdges) {
-            DAGNode<V,E> tail = edge.getTail();
-            DAGNode<V,E> transformedTail = tail.transformEdges(function);
-            DAGEdge<V,E> toQuery = edge;
-            if (transformedTail != tail) {
-                // the node changed, query with the updated edge
-                toQuery = DAGEdge.create(this, transformedTail, edge.getLabel());
-            }
-            DAGEdge<V,E> transformedEdge = function.apply(toQuery);
-            if (transformedEdge == null) {
-                transformedEdge = toQuery;
-            }
-            if (edge.equals(transformedEdge)) {
-                // edge unmodified
-                if (builder == null) {
-                    intact.add(transformedEdge);
+        if (outgoingEdges.isEmpty()) {
+            return this;
+        }
+        // transformed nodes, so shared subgraphs are only transformed once
+        Map<DAGNode<V,E>, DAGNode<V,E>> done = new HashMap<>();
+        Deque<TransformFrame<V,E>> stack = new ArrayDeque<>();
+        stack.push(new TransformFrame<>(this));
+        while (true) {
+            TransformFrame<V,E> top = stack.peek();
+            if (top.edges.hasNext()) {
+                DAGEdge<V,E> edge = top.edges.next();
+                DAGNode<V,E> tail = edge.getTail();
+                DAGNode<V,E> transformedTail = tail.outgoingEdges.isEmpty() ? tail : done.get(tail);
+                if (transformedTail == null) {
+                    top.pending = edge;
+                    stack.push(new TransformFrame<>(tail));
                 } else {
-                    builder.addEdge(transformedEdge.getTail(), transformedEdge.getLabel());
+                    top.addEdge(edge, transformedTail, function);
                 }
             } else {
-                // modified, need to transform this node
-                if (builder == null) {
-                    builder = newBuilder(label);
-                    for (DAGEdge<V,E> done: intact) {
-                        builder.addEdge(done.getTail(), done.getLabel());
-                    }
+                stack.pop();
+                DAGNode<V,E> result = top.build();
+                done.put(top.node, result);
+                TransformFrame<V,E> parent = stack.peek();
+                if (parent == null) {
+                    return result;
                 }
-                builder.addEdge(transformedEdge.getTail(), transformedEdge.getLabel());
+                parent.addEdge(parent.pending, result, function);
+                parent.pending = null;
             }
         }
-
-        if (builder != null) {
-            return builder.build();
-        } else {
-            return this;
-        }
     }
 
     @Override
@@ -444,21 +564,6 @@ public class DAGNode<V,E> implements Serializable {
         return sb.toString();
     }
 
-    /**
-     * Supplier to compute the map of incoming edges.  Used to implement {@link #getIncomingEdgeMap()}.
-     */
-    private class EdgeMapSupplier implements Supplier<SetMultimap<DAGNode<V, E>, DAGEdge<V, E>>> {
-        @Override
-        public SetMultimap<DAGNode<V, E>, DAGEdge<V, E>> get() {
-            ImmutableSetMultimap.Builder<DAGNode<V,E>,DAGEdge<V,E>> bld = ImmutableSetMultimap.builder();
-            for (DAGEdge<V,E> nbr: outgoingEdges) {
-                bld.put(nbr.getTail(), nbr);
-                bld.putAll(nbr.getTail().getIncomingEdgeMap());
-            }
-            return bld.build();
-        }
-    }
-
     /**
      * Supplier to compute the set of reachable nodes.
      */
@@ -478,6 +583,80 @@ public class DAGNode<V,E> implements Serializable {
         }
     }
 
+    /**
+     * Stack frame for {@link #replaceNode(DAGNode, DAGNode, Map)}.
+     */
+    private static class RebuildFrame<V,E> {
+        final DAGNode<V,E> node;
+        final Iterator<DAGEdge<V,E>> edges;
+        final DAGNodeBuilder<V,E> builder;
+        // the edge whose tail is being rebuilt by the frame above this one
+        DAGEdge<V,E> pending;
+
+        RebuildFrame(DAGNode<V,E> node) {
+            this.node = node;
+            edges = node.outgoingEdges.iterator();
+            builder = newBuilder(node.label);
+        }
+    }
+
+    /**
+     * Stack frame for {@link #transformEdges(Function)}.
+     */
+    private static class TransformFrame<V,E> {
+        final DAGNode<V,E> node;
+        final Iterator<DAGEdge<V,E>> edges;
+        // builder for new node
+        DAGNodeBuilder<V,E> builder = null;
+        // intact edges (unmodified edges)
+        final List<DAGEdge<V,E>> intact;
+        // the edge whose tail is being transformed by the frame above this one
+        DAGEdge<V,E> pending;
+
+        TransformFrame(DAGNode<V,E> node) {
+            this.node = node;
+            edges = node.outgoingEdges.iterator();
+            intact = Lists.newArrayListWithCapacity(node.outgoingEdges.size());
+        }
+
+        /**
+         * Transform an edge of this frame's node, once its tail has been transformed.
+         */
+        void addEdge(DAGEdge<V,E> edge, DAGNode<V,E> transformedTail,
+                     Function<? super DAGEdge<V,E>, ? extends DAGEdge<V,E>> function) {
+            DAGEdge<V,E> toQuery = edge;
+            if (transformedTail != edge.getTail()) {
+                // the node changed, query with the updated edge
+                toQuery = DAGEdge.create(node, transformedTail, edge.getLabel());
+            }
+            DAGEdge<V,E> transformedEdge = function.apply(toQuery);
+            if (transformedEdge == null) {
+                transformedEdge = toQuery;
+            }
+            if (edge.equals(transformedEdge)) {
+                // edge unmodified
+                if (builder == null) {
+                    intact.add(transformedEdge);
+                } else {
+                    builder.addEdge(transformedEdge.getTail(), transformedEdge.getLabel());
+                }
+            } else {
+                // modified, need to transform this node
+                if (builder == null) {
+                    builder = newBuilder(node.label);
+                    for (DAGEdge<V,E> done: intact) {
+                        builder.addEdge(done.getTail(), done.getLabel());
+                    }
+                }
+                builder.addEdge(transformedEdge.getTail(), transformedEdge.getLabel());
+            }
+        }
+
+        DAGNode<V,E> build() {
+            return builder != null ? builder.build() : node;
+        }
+    }
+
     private static class BFSNodeIter<V,E> implements Iterator<DAGNode<V,E>> {
         // things only go on work if they've been added to seen
         Queue<DAGNode<V, E>> work = Lists.newLinkedList();
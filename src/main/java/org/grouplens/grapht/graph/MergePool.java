@@ -28,6 +28,7 @@ import com.google.common.base.Functions;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.apache.commons.lang3.tuple.Pair;
+import org.grouplens.grapht.metrics.InjectorEvents;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -67,6 +68,29 @@ public class MergePool<V,E> {
         return new MergePool<V, E>();
     }
 
+    /**
+     * Get the number of distinct nodes this pool remembers.
+     *
+     * @return The number of nodes in the pool.
+     * @since 0.11
+     */
+    public int size() {
+        return pool.size();
+    }
+
+    /**
+     * Create a copy of this merge pool.  The copy remembers all graphs this pool has seen, but
+     * graphs subsequently merged into either pool are not seen by the other.
+     *
+     * @return A new merge pool with the same contents as this one.
+     * @since 0.11
+     */
+    public MergePool<V,E> copy() {
+        MergePool<V,E> copy = new MergePool<V, E>();
+        copy.pool.addAll(pool);
+        return copy;
+    }
+
     /**
      * Merge and simplify a graph.  This will coalesce redundant nodes (equivalent labels and
      * outgoing edge destinations), and will prefer to use nodes from graphs seen previously.
@@ -78,6 +102,15 @@ public class MergePool<V,E> {
      * @return The new simplified, merged graph.
      */
     public DAGNode<V,E> merge(DAGNode<V, E> graph) {
+        Object event = InjectorEvents.begin(InjectorEvents.Kind.MERGE);
+        try {
+            return mergeGraph(graph);
+        } finally {
+            InjectorEvents.end(event, graph.getLabel(), graph.getSortedNodes().size());
+        }
+    }
+
+    private DAGNode<V,E> mergeGraph(DAGNode<V, E> graph) {
         List<DAGNode<V, E>> sorted = graph.getSortedNodes();
 
         Map<Pair<V,Set<DAGNode<V,E>>>, DAGNode<V,E>> nodeTable = Maps.newHashMap();
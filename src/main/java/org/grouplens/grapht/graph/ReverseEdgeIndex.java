@@ -0,0 +1,119 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.graph;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.*;
+
+/**
+ * Index of the incoming edges of every node reachable from a root node.  The index is built in a
+ * single traversal of the graph.  Since most nodes in a dependency graph have only one incoming
+ * edge, such nodes map directly to their edge; only nodes with several incoming edges are given
+ * their own edge set.
+ *
+ * @param <V> The type of node labels.
+ * @param <E> The type of edge labels.
+ * @since 0.11
+ * @author <a href="http://grouplens.org">GroupLens Research</a>
+ */
+final class ReverseEdgeIndex<V,E> {
+    /**
+     * Map of nodes to either a single {@link DAGEdge} or an {@link ImmutableSet} of edges.
+     */
+    private final ImmutableMap<DAGNode<V,E>, Object> edges;
+
+    private ReverseEdgeIndex(ImmutableMap<DAGNode<V,E>, Object> edges) {
+        this.edges = edges;
+    }
+
+    /**
+     * Build the reverse edge index for a graph.  Edges are indexed in a pre-order depth-first
+     * traversal, so the edges into each node are in the order that the traversal reaches them.
+     *
+     * @param root The root of the graph.
+     * @return The index of incoming edges for the nodes reachable from {@code root}.
+     */
+    @SuppressWarnings("unchecked")
+    static <V,E> ReverseEdgeIndex<V,E> build(DAGNode<V,E> root) {
+        Map<DAGNode<V,E>, Object> map = new LinkedHashMap<>();
+        Set<DAGNode<V,E>> seen = new HashSet<>();
+        Deque<Iterator<DAGEdge<V,E>>> stack = new ArrayDeque<>();
+        seen.add(root);
+        stack.push(root.getOutgoingEdges().iterator());
+        while (!stack.isEmpty()) {
+            Iterator<DAGEdge<V,E>> top = stack.peek();
+            if (top.hasNext()) {
+                DAGEdge<V,E> edge = top.next();
+                DAGNode<V,E> tail = edge.getTail();
+                Object prev = map.get(tail);
+                if (prev == null) {
+                    map.put(tail, edge);
+                } else if (prev instanceof DAGEdge) {
+                    List<DAGEdge<V,E>> list = new ArrayList<>(2);
+                    list.add((DAGEdge<V,E>) prev);
+                    list.add(edge);
+                    map.put(tail, list);
+                } else {
+                    ((List<DAGEdge<V,E>>) prev).add(edge);
+                }
+                if (seen.add(tail)) {
+                    stack.push(tail.getOutgoingEdges().iterator());
+                }
+            } else {
+                stack.pop();
+            }
+        }
+
+        ImmutableMap.Builder<DAGNode<V,E>, Object> bld = ImmutableMap.builder();
+        for (Map.Entry<DAGNode<V,E>, Object> e: map.entrySet()) {
+            Object value = e.getValue();
+            if (value instanceof List) {
+                value = ImmutableSet.copyOf((List<DAGEdge<V,E>>) value);
+            }
+            bld.put(e.getKey(), value);
+        }
+        return new ReverseEdgeIndex<>(bld.build());
+    }
+
+    /**
+     * Get the incoming edges of a node.
+     * @param node The node.
+     * @return The edges into {@code node}, or the empty set if it is not reachable from the root
+     *         (or is the root).
+     */
+    @SuppressWarnings("unchecked")
+    public Set<DAGEdge<V,E>> get(DAGNode<V,E> node) {
+        Object value = edges.get(node);
+        if (value == null) {
+            return ImmutableSet.of();
+        } else if (value instanceof DAGEdge) {
+            return ImmutableSet.of((DAGEdge<V,E>) value);
+        } else {
+            return (Set<DAGEdge<V,E>>) value;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.metrics;
+
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Emits profiling events for injector operations.  On runtimes with Java Flight Recorder, each
+ * operation is reported as a JFR event in the {@code Grapht} category carrying its subject
+ * (desire or type), depth and duration, so injector cost shows up in recordings alongside GC
+ * and allocation data.  On runtimes without JFR, {@link #begin(Kind)} returns {@code null} and
+ * the event methods do nothing.
+ * <p>
+ * Operations are instrumented as follows:
+ * <pre>{@code
+ * Object event = InjectorEvents.begin(Kind.RESOLVE);
+ * try {
+ *     // do the work
+ * } finally {
+ *     InjectorEvents.end(event, desire, depth);
+ * }
+ * }</pre>
+ *
+ * @since 0.11
+ * @author <a href="http://grouplens.org">GroupLens Research</a>
+ */
+public final class InjectorEvents {
+    private static final Logger logger = LoggerFactory.getLogger(InjectorEvents.class);
+    private static final String JFR_SINK = "org.grouplens.grapht.metrics.JfrEventSink";
+
+    @Nullable
+    private static final EventSink sink = loadSink();
+
+    private InjectorEvents() {}
+
+    /**
+     * The kinds of injector operation that produce events.
+     */
+    public enum Kind {
+        /**
+         * Top-level resolution of a desire by {@code DependencySolver.resolve}.
+         */
+        RESOLVE,
+        /**
+         * Resolution of a desire and its dependencies; depth is the context depth.
+         */
+        RESOLVE_FULLY,
+        /**
+         * Merging a graph into a merge pool; depth is the number of nodes in the graph.
+         */
+        MERGE,
+        /**
+         * Construction of an instance by its constructor and injection members.
+         */
+        INSTANTIATE,
+        /**
+         * Invocation of a provider.
+         */
+        PROVIDER
+    }
+
+    /**
+     * Query whether events are supported by this runtime.
+     * @return {@code true} if events are emitted to Java Flight Recorder.
+     */
+    public static boolean isSupported() {
+        return sink != null;
+    }
+
+    /**
+     * Start timing an operation.
+     *
+     * @param kind The kind of operation.
+     * @return An event token to pass to {@link #end(Object, Object, int)}, or {@code null} if the
+     *         event will not be recorded.
+     */
+    @Nullable
+    public static Object begin(Kind kind) {
+        return sink == null ? null : sink.begin(kind);
+    }
+
+    /**
+     * Finish an operation, recording its event.
+     *
+     * @param event   The token from {@link #begin(Kind)}.
+     * @param subject The desire or type the operation worked on.  It is only converted to a string
+     *                if the event is recorded.
+     * @param depth   The operation's depth (see {@link Kind}).
+     */
+    public static void end(@Nullable Object event, Object subject, int depth) {
+        if (event != null) {
+            sink.end(event, subject, depth);
+        }
+    }
+
+    /**
+     * Finish a construction or provider operation, recording its event.  The depth is the number
+     * of constructions and provider invocations enclosing this one on the current thread.
+     *
+     * @param event   The token from {@link #begin(Kind)}.
+     * @param subject The type being constructed.
+     */
+    public static void end(@Nullable Object event, Object subject) {
+        if (event != null) {
+            sink.end(event, subject, -1);
+        }
+    }
+
+    @Nullable
+    private static EventSink loadSink() {
+        try {
+            Class.forName("jdk.jfr.Event", false, InjectorEvents.class.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            logger.debug("JFR is not available, injector events are disabled");
+            return null;
+        }
+        try {
+            return Class.forName(JFR_SINK).asSubclass(EventSink.class).newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            logger.warn("cannot initialize JFR events", e);
+            return null;
+        }
+    }
+
+    /**
+     * Interface for event implementations.  Implementations are only loaded if their event API
+     * is available.
+     */
+    interface EventSink {
+        @Nullable
+        Object begin(Kind kind);
+
+        void end(Object event, Object subject, int depth);
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.metrics;
+
+import net.jcip.annotations.ThreadSafe;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects metrics about dependency resolution and instantiation.  An injector or solver
+ * configured with a metrics object records where its time goes; the data is available from the
+ * accessors of this class and, once {@linkplain #registerMBean(String) registered}, over JMX.
+ * <p>
+ * Components that are not given a metrics object use {@link #disabled()}, whose recording methods
+ * return immediately.  Timed operations should obtain their start time from {@link #startTimer()},
+ * which does not read the clock when metrics are disabled.
+ *
+ * @since 0.11
+ * @author <a href="http://grouplens.org">GroupLens Research</a>
+ */
+@ThreadSafe
+public class InjectorMetrics implements InjectorMetricsMXBean {
+    private static final InjectorMetrics DISABLED = new InjectorMetrics(false);
+
+    private final boolean enabled;
+    private final LongAdder desiresResolved = new LongAdder();
+    private final ConcurrentMap<Object, LongAdder> bindingHits = new ConcurrentHashMap<Object, LongAdder>();
+    private final LongAdder contextMatches = new LongAdder();
+    private final LongAdder mergedNodes = new LongAdder();
+    private final LongAdder reusedNodes = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final ConcurrentMap<Class<?>, LatencyHistogram> construction =
+            new ConcurrentHashMap<Class<?>, LatencyHistogram>();
+    private final LongAdder lockAcquisitions = new LongAdder();
+    private final LongAdder lockWait = new LongAdder();
+
+    private InjectorMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Create a new metrics object that records metrics.
+     * @return A new, enabled metrics object.
+     */
+    public static InjectorMetrics create() {
+        return new InjectorMetrics(true);
+    }
+
+    /**
+     * Get the shared metrics object that records nothing.
+     * @return The disabled metrics object.
+     */
+    public static InjectorMetrics disabled() {
+        return DISABLED;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get a start time for a timed operation.
+     * @return The current {@link System#nanoTime()}, or 0 if metrics are disabled.
+     */
+    public long startTimer() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Record the resolution of a desire.
+     */
+    public void recordDesireResolved() {
+        if (enabled) {
+            desiresResolved.increment();
+        }
+    }
+
+    /**
+     * Record that a binding function produced a binding.
+     * @param function The binding function.
+     */
+    public void recordBindingHit(Object function) {
+        if (enabled) {
+            LongAdder hits = bindingHits.get(function);
+            if (hits == null) {
+                hits = bindingHits.computeIfAbsent(function, f -> new LongAdder());
+            }
+            hits.increment();
+        }
+    }
+
+    /**
+     * Record context match attempts.
+     * @param attempts The number of context matchers tested.
+     */
+    public void recordContextMatches(int attempts) {
+        if (enabled) {
+            contextMatches.add(attempts);
+        }
+    }
+
+    /**
+     * Record a merge pool operation.
+     * @param nodes The number of nodes in the merged graph.
+     * @param reused The number of those nodes replaced by nodes already in the pool.
+     */
+    public void recordMerge(int nodes, int reused) {
+        if (enabled) {
+            mergedNodes.add(nodes);
+            reusedNodes.add(reused);
+        }
+    }
+
+    /**
+     * Record an instantiator cache lookup.
+     * @param hit Whether the lookup found a cached instantiator.
+     */
+    public void recordCacheLookup(boolean hit) {
+        if (enabled) {
+            (hit ? cacheHits : cacheMisses).increment();
+        }
+    }
+
+    /**
+     * Record the construction of a component.
+     * @param type The component type.
+     * @param start The start time, from {@link #startTimer()}.
+     */
+    public void recordConstruction(Class<?> type, long start) {
+        if (enabled) {
+            long elapsed = System.nanoTime() - start;
+            LatencyHistogram hist = construction.get(type);
+            if (hist == null) {
+                hist = construction.computeIfAbsent(type, t -> new LatencyHistogram());
+            }
+            hist.record(elapsed);
+        }
+    }
+
+    /**
+     * Record acquisition of an injector lock.
+     * @param start The time the thread started waiting, from {@link #startTimer()}.
+     */
+    public void recordLockAcquired(long start) {
+        if (enabled) {
+            lockAcquisitions.increment();
+            lockWait.add(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public long getDesiresResolved() {
+        return desiresResolved.sum();
+    }
+
+    @Override
+    public Map<String, Long> getBindingFunctionHits() {
+        Map<String, Long> result = new TreeMap<String, Long>();
+        for (Map.Entry<Object, LongAdder> e: bindingHits.entrySet()) {
+            result.merge(e.getKey().toString(), e.getValue().sum(), Long::sum);
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of bindings produced by a particular binding function.
+     * @param function The binding function.
+     * @return The number of bindings it has produced.
+     */
+    public long getBindingFunctionHits(Object function) {
+        LongAdder hits = bindingHits.get(function);
+        return hits == null ? 0 : hits.sum();
+    }
+
+    @Override
+    public long getContextMatchAttempts() {
+        return contextMatches.sum();
+    }
+
+    @Override
+    public long getMergedNodes() {
+        return mergedNodes.sum();
+    }
+
+    @Override
+    public long getReusedNodes() {
+        return reusedNodes.sum();
+    }
+
+    @Override
+    public double getMergeReuseRatio() {
+        long n = getMergedNodes();
+        return n == 0 ? 0 : (double) getReusedNodes() / n;
+    }
+
+    @Override
+    public long getProviderCacheHits() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long getProviderCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * Get the construction latency histograms.  Latencies include the time spent constructing
+     * dependencies that were not already available.
+     *
+     * @return An unmodifiable view of the latency histogram of each constructed type.
+     */
+    public Map<Class<?>, LatencyHistogram> getConstructionLatencies() {
+        return Collections.unmodifiableMap(construction);
+    }
+
+    @Override
+    public Map<String, long[]> getConstructionHistograms() {
+        Map<String, long[]> result = new HashMap<String, long[]>();
+        for (Map.Entry<Class<?>, LatencyHistogram> e: construction.entrySet()) {
+            result.put(e.getKey().getName(), e.getValue().getBuckets());
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Double> getMeanConstructionNanos() {
+        Map<String, Double> result = new HashMap<String, Double>();
+        for (Map.Entry<Class<?>, LatencyHistogram> e: construction.entrySet()) {
+            result.put(e.getKey().getName(), e.getValue().getMeanNanos());
+        }
+        return result;
+    }
+
+    @Override
+    public long getLockAcquisitions() {
+        return lockAcquisitions.sum();
+    }
+
+    @Override
+    public long getLockWaitNanos() {
+        return lockWait.sum();
+    }
+
+    @Override
+    public void reset() {
+        desiresResolved.reset();
+        bindingHits.clear();
+        contextMatches.reset();
+        mergedNodes.reset();
+        reusedNodes.reset();
+        cacheHits.reset();
+        cacheMisses.reset();
+        construction.clear();
+        lockAcquisitions.reset();
+        lockWait.reset();
+    }
+
+    /**
+     * Register this object with the platform MBean server.
+     *
+     * @param name The name to distinguish this injector's metrics from others.
+     * @return The object name under which the metrics were registered.
+     * @throws JMException if the metrics cannot be registered.
+     */
+    public ObjectName registerMBean(String name) throws JMException {
+        ObjectName oname = new ObjectName("org.grouplens.grapht:type=InjectorMetrics,name="
+                                                  + ObjectName.quote(name));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(this, oname);
+        return oname;
+    }
+}
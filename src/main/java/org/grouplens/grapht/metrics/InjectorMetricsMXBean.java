@@ -0,0 +1,119 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX management interface for {@link InjectorMetrics}.
+ *
+ * @since 0.11
+ * @author <a href="http://grouplens.org">GroupLens Research</a>
+ */
+public interface InjectorMetricsMXBean {
+    /**
+     * Query whether metrics are being collected.
+     * @return {@code true} if metrics are recorded.
+     */
+    boolean isEnabled();
+
+    /**
+     * Get the number of desires the solver has resolved, including dependencies.
+     * @return The number of desire resolutions.
+     */
+    long getDesiresResolved();
+
+    /**
+     * Get the number of bindings produced by each binding function.
+     * @return A map of binding function descriptions to the number of bindings they produced.
+     */
+    Map<String, Long> getBindingFunctionHits();
+
+    /**
+     * Get the number of context matchers tested against injection contexts.
+     * @return The number of context match attempts.
+     */
+    long getContextMatchAttempts();
+
+    /**
+     * Get the number of nodes submitted to the solver's merge pool.
+     * @return The number of nodes merged.
+     */
+    long getMergedNodes();
+
+    /**
+     * Get the number of merged nodes that were replaced with nodes already in the pool.
+     * @return The number of reused nodes.
+     */
+    long getReusedNodes();
+
+    /**
+     * Get the fraction of merged nodes that were reused.
+     * @return The merge pool reuse ratio, or 0 if nothing has been merged.
+     */
+    double getMergeReuseRatio();
+
+    /**
+     * Get the number of injection container lookups that found a cached instantiator.
+     * @return The number of provider cache hits.
+     */
+    long getProviderCacheHits();
+
+    /**
+     * Get the number of injection container lookups that had to build an instantiator.
+     * @return The number of provider cache misses.
+     */
+    long getProviderCacheMisses();
+
+    /**
+     * Get the construction latency histograms, keyed by type name.  Each array holds the
+     * {@linkplain LatencyHistogram#getBuckets() bucket counts} of the type's histogram.
+     * @return The construction latency histograms.
+     */
+    Map<String, long[]> getConstructionHistograms();
+
+    /**
+     * Get the mean construction latency of each type, in nanoseconds.
+     * @return The mean construction latencies, keyed by type name.
+     */
+    Map<String, Double> getMeanConstructionNanos();
+
+    /**
+     * Get the number of times the injector's lock was acquired.
+     * @return The number of lock acquisitions.
+     */
+    long getLockAcquisitions();
+
+    /**
+     * Get the total time spent waiting for the injector's lock.
+     * @return The total lock wait time, in nanoseconds.
+     */
+    long getLockWaitNanos();
+
+    /**
+     * Reset all metrics to zero.
+     */
+    void reset();
+}
@@ -26,6 +26,7 @@ package org.grouplens.grapht.reflect;
 
 import org.grouplens.grapht.reflect.internal.ReflectionDesire;
 import org.grouplens.grapht.reflect.internal.SimpleInjectionPoint;
+import org.grouplens.grapht.util.Interning;
 
 import org.jetbrains.annotations.Nullable;
 import java.lang.annotation.Annotation;
@@ -44,10 +45,10 @@ public final class Desires {
      * @return The desire.
      */
     public static Desire create(@Nullable Annotation qualifier, Class<?> type, boolean nullable) {
-        return new ReflectionDesire(createInjectionPoint(qualifier, type, nullable));
+        return Interning.intern(new ReflectionDesire(createInjectionPoint(qualifier, type, nullable)));
     }
 
     public static InjectionPoint createInjectionPoint(@Nullable Annotation qualifier, Class<?> type, boolean nullable) {
-        return new SimpleInjectionPoint(qualifier, type, nullable);
+        return Interning.intern(new SimpleInjectionPoint(qualifier, type, nullable));
     }
 }
@@ -24,16 +24,19 @@
  */
 package org.grouplens.grapht.reflect;
 
+import com.google.common.collect.MapMaker;
 import com.google.common.collect.Sets;
 import org.grouplens.grapht.annotation.AliasFor;
 import org.grouplens.grapht.annotation.AllowDefaultMatch;
 import org.grouplens.grapht.annotation.AllowUnqualifiedMatch;
 import org.grouplens.grapht.util.ClassProxy;
+import org.grouplens.grapht.util.Interning;
 import org.grouplens.grapht.util.Preconditions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import javax.inject.Qualifier;
 import java.io.InvalidObjectException;
 import java.io.ObjectInputStream;
@@ -41,6 +44,8 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Utilities related to Qualifier implementations.
@@ -49,6 +54,52 @@ import java.util.Set;
  */
 public final class Qualifiers {
     private static final Logger logger = LoggerFactory.getLogger(Qualifiers.class);
+
+    /**
+     * Alias resolution results, either the target annotation type or the
+     * {@link IllegalArgumentException} describing why the type cannot be resolved.
+     */
+    private static final ClassValue<Object> aliasTargets = new ClassValue<Object>() {
+        @Override
+        protected Object computeValue(Class<?> type) {
+            try {
+                return doResolveAliases(type.asSubclass(Annotation.class));
+            } catch (IllegalArgumentException e) {
+                return e;
+            }
+        }
+    };
+
+    /**
+     * Qualifier IDs of nullary qualifiers, keyed by alias-resolved type.
+     */
+    private static final ClassValue<Integer> nullaryIds = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return nextId.incrementAndGet();
+        }
+    };
+    /**
+     * Qualifier IDs of qualifiers with attributes, keyed by the identity of the
+     * {@linkplain Interning interned} instance.  Keys are weak.
+     */
+    private static final ConcurrentMap<Annotation, Integer> canonicalIds =
+            new MapMaker().weakKeys().makeMap();
+    /**
+     * The interned instances of qualifiers with attributes that have been looked up but are not
+     * interned themselves.  Keys are weak; the values keep each interned instance, and therefore
+     * its ID, alive as long as an equal qualifier that has been looked up.
+     */
+    private static final ConcurrentMap<Annotation, Annotation> canonicalInstances =
+            new MapMaker().weakKeys().makeMap();
+    /**
+     * Qualifier IDs of nullary qualifiers, keyed by the identity of annotation instances that
+     * have been looked up.
+     */
+    private static final ConcurrentMap<Annotation, Integer> instanceIds =
+            new MapMaker().weakKeys().makeMap();
+    private static final AtomicInteger nextId = new AtomicInteger();
+
     private Qualifiers() { }
 
     /**
@@ -76,6 +127,15 @@ public final class Qualifiers {
     @NotNull
     public static Class<? extends Annotation> resolveAliases(@NotNull Class<? extends Annotation> type) {
         Preconditions.notNull("qualifier type", type);
+        Object result = aliasTargets.get(type);
+        if (result instanceof IllegalArgumentException) {
+            IllegalArgumentException cached = (IllegalArgumentException) result;
+            throw new IllegalArgumentException(cached.getMessage(), cached);
+        }
+        return ((Class<?>) result).asSubclass(Annotation.class);
+    }
+
+    private static Class<? extends Annotation> doResolveAliases(Class<? extends Annotation> type) {
         Set<Class<? extends Annotation>> seen = Sets.newHashSet();
         seen.add(type);
         Class<? extends Annotation> result = type;
@@ -95,6 +155,52 @@ public final class Qualifiers {
         return result;
     }
 
+    /**
+     * Get the integer ID of a qualifier.  Qualifiers have the same ID if and only if they are
+     * interchangeable for matching: equal annotations, or nullary annotations whose types
+     * resolve to the same {@linkplain #resolveAliases(Class) alias target}.  IDs are only
+     * meaningful within a single run of the JVM.
+     *
+     * <p>Lookups for an annotation instance that has already been seen are by identity, so
+     * matching a qualifier against a known ID does not need to hash or compare its
+     * attributes.</p>
+     *
+     * @param qualifier The qualifier, or {@code null} for no qualifier.
+     * @return The qualifier's ID; 0 is the ID of the {@code null} qualifier.
+     * @since 0.11
+     */
+    public static int getQualifierId(@Nullable Annotation qualifier) {
+        if (qualifier == null) {
+            return 0;
+        }
+        Integer id = instanceIds.get(qualifier);
+        if (id == null) {
+            id = canonicalIds.get(qualifier);
+        }
+        if (id == null) {
+            Annotation canonical = canonicalInstances.get(qualifier);
+            if (canonical != null) {
+                id = canonicalIds.get(canonical);
+            }
+        }
+        if (id != null) {
+            return id;
+        }
+
+        Class<? extends Annotation> type = qualifier.annotationType();
+        if (type.getDeclaredMethods().length == 0) {
+            id = nullaryIds.get(resolveAliases(type));
+            instanceIds.put(qualifier, id);
+        } else {
+            Annotation canonical = Interning.intern(qualifier);
+            id = canonicalIds.computeIfAbsent(canonical, k -> nextId.incrementAndGet());
+            if (canonical != qualifier) {
+                canonicalInstances.put(qualifier, canonical);
+            }
+        }
+        return id;
+    }
+
     /**
      * The default qualifier matcher. This matches the null qualifier and any qualifier
      * @return A QualifierMatcher that matches using the default policy.
@@ -369,6 +475,8 @@ public final class Qualifiers {
 
         @SuppressWarnings("squid:S1948") // serializable warning; annotations are serializable
         private final Annotation annotation;
+        // 0 until computed, since 0 is reserved for the null qualifier
+        private transient volatile int qualifierId;
         
         public AnnotationMatcher(Annotation annot) {
             super(DefaultMatcherPriority.MATCH_VALUE);
@@ -376,16 +484,36 @@ public final class Qualifiers {
             Preconditions.isQualifier(annot.annotationType());
             annotation = annot;
         }
+
+        private int getId() {
+            int id = qualifierId;
+            if (id == 0) {
+                id = getQualifierId(annotation);
+                qualifierId = id;
+            }
+            return id;
+        }
         
         @Override
         public boolean apply(Annotation q) {
-            return annotation.equals(q);
+            if (q == annotation) {
+                return true;
+            } else if (q == null || !q.annotationType().equals(annotation.annotationType())) {
+                return false;
+            } else {
+                return getQualifierId(q) == getId();
+            }
         }
         
         @Override
         public boolean equals(Object o) {
-            return (o instanceof AnnotationMatcher)
-                   && ((AnnotationMatcher) o).annotation.equals(annotation);
+            if (!(o instanceof AnnotationMatcher)) {
+                return false;
+            }
+            // same test as apply: aliases share an ID but do not match each other
+            AnnotationMatcher om = (AnnotationMatcher) o;
+            return om.annotation.annotationType().equals(annotation.annotationType())
+                   && om.getId() == getId();
         }
         
         @Override
@@ -25,6 +25,7 @@
 package org.grouplens.grapht.reflect;
 
 import org.grouplens.grapht.CachePolicy;
+import org.grouplens.grapht.ComponentRegistry;
 import org.grouplens.grapht.Injector;
 import org.grouplens.grapht.Instantiator;
 import org.grouplens.grapht.LifecycleManager;
@@ -116,13 +117,48 @@ public interface Satisfaction extends Serializable {
      * If the satisfaction is configured to use specific instances, this rule is
      * obviously void.
      * 
+     * <p>
+     * The injector calls this method.  Implementations should override it or
+     * {@link #makeInstantiator(Map, LifecycleManager)}; the default implementation
+     * delegates to the latter, giving it a lifecycle manager that forwards
+     * registrations to {@code registry}.
+     *
+     * @param dependencies A function mapping desires to providers of their
+     *            instances.
+     * @param registry The registry for constructed components (if one should be used).
+     * @return An instantiator of new instances of the type specified by this
+     *         satisfaction, instantiated using the specified dependency
+     *         mapping.
+     * @since 0.11
+     */
+    default Instantiator makeInstantiator(@NotNull Map<Desire,Instantiator> dependencies,
+                                          @Nullable ComponentRegistry registry) {
+        LifecycleManager lm;
+        if (registry == null || registry instanceof LifecycleManager) {
+            lm = (LifecycleManager) registry;
+        } else {
+            lm = LifecycleManager.forwardingTo(registry);
+        }
+        return makeInstantiator(dependencies, lm);
+    }
+
+    /**
+     * Create an instantiator from this satisfaction, registering constructed components with a
+     * lifecycle manager.  The default implementation calls
+     * {@link #makeInstantiator(Map, ComponentRegistry)}.
+     *
      * @param dependencies A function mapping desires to providers of their
      *            instances.
      * @param lm The lifecycle manager (if one should be used).
      * @return An instantiator of new instances of the type specified by this
      *         satisfaction, instantiated using the specified dependency
      *         mapping.
+     * @deprecated Override {@link #makeInstantiator(Map, ComponentRegistry)}, which does not
+     *             give satisfactions control of the lifecycle manager.
      */
-    Instantiator makeInstantiator(@NotNull Map<Desire,Instantiator> dependencies,
-                                  @Nullable LifecycleManager lm);
+    @Deprecated
+    default Instantiator makeInstantiator(@NotNull Map<Desire,Instantiator> dependencies,
+                                          @Nullable LifecycleManager lm) {
+        return makeInstantiator(dependencies, (ComponentRegistry) lm);
+    }
 }
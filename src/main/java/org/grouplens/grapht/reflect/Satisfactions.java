@@ -57,4 +57,18 @@ public final class Satisfactions {
     public static Satisfaction providerInstance(@NotNull Provider<?> provider) {
         return new ProviderInstanceSatisfaction(provider);
     }
+
+    /**
+     * Query whether objects wrapping a satisfaction may be interned.  Instance and provider
+     * instance satisfactions compare their objects with {@link Object#equals(Object)}, so
+     * interning them could hand one injector an equal but distinct object bound in another.
+     *
+     * @param satisfaction The satisfaction.
+     * @return {@code true} if the satisfaction does not wrap a bound instance or provider.
+     * @since 0.11
+     */
+    public static boolean isInternable(@NotNull Satisfaction satisfaction) {
+        return !(satisfaction instanceof InstanceSatisfaction
+                 || satisfaction instanceof ProviderInstanceSatisfaction);
+    }
 }
@@ -25,10 +25,11 @@
 package org.grouplens.grapht.reflect.internal;
 
 import com.google.common.collect.ImmutableList;
+import org.grouplens.grapht.ComponentRegistry;
 import org.grouplens.grapht.ConstructionException;
 import org.grouplens.grapht.Instantiator;
-import org.grouplens.grapht.LifecycleManager;
 import org.grouplens.grapht.NullDependencyException;
+import org.grouplens.grapht.metrics.InjectorEvents;
 import org.grouplens.grapht.reflect.Desire;
 import org.grouplens.grapht.reflect.InjectionPoint;
 import org.grouplens.grapht.util.LogContext;
@@ -53,7 +54,7 @@ public class ClassInstantiator implements Instantiator {
     private final Class<?> type;
     private final List<Desire> desires;
     private final Map<Desire, Instantiator> providers;
-    private final LifecycleManager manager;
+    private final ComponentRegistry registry;
 
     /**
      * Create an ClassInstantiator that will provide instances of the given
@@ -66,7 +67,7 @@ public class ClassInstantiator implements Instantiator {
      */
     public ClassInstantiator(Class<?> type, List<Desire> desires,
                              Map<Desire,Instantiator> providers,
-                             LifecycleManager manager) {
+                             ComponentRegistry registry) {
         Preconditions.notNull("type", type);
         Preconditions.notNull("desires", desires);
         Preconditions.notNull("providers", providers);
@@ -74,7 +75,7 @@ public class ClassInstantiator implements Instantiator {
         this.type = type;
         this.desires = desires;
         this.providers = providers;
-        this.manager = manager;
+        this.registry = registry;
     }
 
     @Override
@@ -84,6 +85,15 @@ public class ClassInstantiator implements Instantiator {
 
     @Override
     public Object instantiate() throws ConstructionException {
+        Object event = InjectorEvents.begin(InjectorEvents.Kind.INSTANTIATE);
+        try {
+            return construct();
+        } finally {
+            InjectorEvents.end(event, type);
+        }
+    }
+
+    private Object construct() throws ConstructionException {
         // find constructor and build up necessary constructor arguments
 
         Map<Member, List<Desire>> depGroups =
@@ -125,8 +135,8 @@ public class ClassInstantiator implements Instantiator {
             }
         }
 
-        if (manager != null) {
-            manager.registerComponent(instance);
+        if (registry != null) {
+            registry.registerComponent(instance);
         }
 
         for(Method method: getPostConstructMethods()){
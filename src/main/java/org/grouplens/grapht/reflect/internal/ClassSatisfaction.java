@@ -25,8 +25,8 @@
 package org.grouplens.grapht.reflect.internal;
 
 import org.grouplens.grapht.CachePolicy;
+import org.grouplens.grapht.ComponentRegistry;
 import org.grouplens.grapht.Instantiator;
-import org.grouplens.grapht.LifecycleManager;
 import org.grouplens.grapht.reflect.Desire;
 import org.grouplens.grapht.reflect.Satisfaction;
 import org.grouplens.grapht.reflect.SatisfactionVisitor;
@@ -107,8 +107,8 @@ public class ClassSatisfaction implements Satisfaction, Serializable {
 
     @Override
     @SuppressWarnings({ "rawtypes", "unchecked" })
-    public Instantiator makeInstantiator(Map<Desire,Instantiator> dependencies, LifecycleManager lm) {
-        return new ClassInstantiator(type, getDependencies(), dependencies, lm);
+    public Instantiator makeInstantiator(Map<Desire,Instantiator> dependencies, ComponentRegistry registry) {
+        return new ClassInstantiator(type, getDependencies(), dependencies, registry);
     }
     
     @Override
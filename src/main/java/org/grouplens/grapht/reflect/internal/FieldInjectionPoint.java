@@ -26,6 +26,7 @@ package org.grouplens.grapht.reflect.internal;
 
 import org.grouplens.grapht.reflect.InjectionPoint;
 import org.grouplens.grapht.util.FieldProxy;
+import org.grouplens.grapht.util.Interning;
 import org.grouplens.grapht.util.Preconditions;
 import org.grouplens.grapht.util.Types;
 
@@ -108,6 +109,9 @@ public final class FieldInjectionPoint implements InjectionPoint, Serializable {
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (!(o instanceof FieldInjectionPoint)) {
             return false;
         }
@@ -152,7 +156,7 @@ public final class FieldInjectionPoint implements InjectionPoint, Serializable {
 
         private Object readResolve() throws InvalidObjectException {
             try {
-                return new FieldInjectionPoint(field.resolve());
+                return Interning.intern(new FieldInjectionPoint(field.resolve()));
             } catch (ClassNotFoundException e) {
                 InvalidObjectException ex =
                         new InvalidObjectException("no class for " + field.toString());
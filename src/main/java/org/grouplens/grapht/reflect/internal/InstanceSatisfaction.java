@@ -100,7 +100,7 @@ public class InstanceSatisfaction implements Satisfaction, Serializable {
     @Override
     @SuppressWarnings({ "rawtypes", "unchecked" })
     public Instantiator makeInstantiator(Map<Desire,Instantiator> dependencies,
-                                         LifecycleManager injectionContainer) {
+                                         ComponentRegistry registry) {
         return Instantiators.ofInstance(instance);
     }
     
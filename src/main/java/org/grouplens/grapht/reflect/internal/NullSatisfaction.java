@@ -99,7 +99,7 @@ public class
     @Override
     @SuppressWarnings({ "unchecked", "rawtypes" })
     public Instantiator makeInstantiator(Map<Desire,Instantiator> dependencies,
-                                         LifecycleManager lm) {
+                                         ComponentRegistry registry) {
         return Instantiators.ofNull(type);
     }
     
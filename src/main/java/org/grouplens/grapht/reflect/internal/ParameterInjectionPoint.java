@@ -25,6 +25,7 @@
 package org.grouplens.grapht.reflect.internal;
 
 import org.grouplens.grapht.reflect.InjectionPoint;
+import org.grouplens.grapht.util.Interning;
 import org.grouplens.grapht.util.MemberProxy;
 import org.grouplens.grapht.util.Preconditions;
 import org.grouplens.grapht.util.Types;
@@ -124,6 +125,9 @@ public class ParameterInjectionPoint implements InjectionPoint, Serializable {
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (!(o instanceof ParameterInjectionPoint)) {
             return false;
         }
@@ -180,7 +184,7 @@ public class ParameterInjectionPoint implements InjectionPoint, Serializable {
 
         private Object readResolve() throws ObjectStreamException {
             try {
-                return new ParameterInjectionPoint((Executable) member.resolve(), parameterIndex);
+                return Interning.intern(new ParameterInjectionPoint((Executable) member.resolve(), parameterIndex));
             } catch (ClassNotFoundException e) {
                 InvalidObjectException ex =
                         new InvalidObjectException("no class for " + member.toString());
@@ -113,11 +113,11 @@ public class ProviderClassSatisfaction implements Satisfaction, Serializable {
     @Override
     @SuppressWarnings({ "unchecked", "rawtypes" })
     public Instantiator makeInstantiator(Map<Desire,Instantiator> dependencies,
-                                         LifecycleManager lm) {
+                                         ComponentRegistry registry) {
         // we have to use the raw type because we don't have enough information,
         // but we can assume correctly that it will build a provider
         ClassInstantiator providerBuilder = new ClassInstantiator(providerType, getDependencies(),
-                                                                  dependencies, lm);
+                                                                  dependencies, registry);
         return Instantiators.ofProviderInstantiator(providerBuilder);
     }
     
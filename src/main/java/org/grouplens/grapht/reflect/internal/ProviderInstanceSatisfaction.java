@@ -41,7 +41,7 @@ import java.util.Map;
 /**
  * Satisfaction implementation wrapping an existing Provider instance. It has no
  * dependencies and it always returns the same Provider when
- * {@link Satisfaction#makeInstantiator(Map, LifecycleManager)} is invoked.
+ * {@link Satisfaction#makeInstantiator(Map, ComponentRegistry)} is invoked.
  * 
  * @author <a href="http://grouplens.org">GroupLens Research</a>
  */
@@ -67,7 +67,7 @@ public class ProviderInstanceSatisfaction implements Satisfaction, Serializable
     }
     
     /**
-     * @return The provider instance returned by {@link Satisfaction#makeInstantiator(Map, LifecycleManager)}
+     * @return The provider instance returned by {@link Satisfaction#makeInstantiator(Map, ComponentRegistry)}
      */
     public Provider<?> getProvider() {
         return provider;
@@ -100,7 +100,7 @@ public class ProviderInstanceSatisfaction implements Satisfaction, Serializable
 
     @Override
     public Instantiator makeInstantiator(Map<Desire,Instantiator> dependencies,
-                                         LifecycleManager lm) {
+                                         ComponentRegistry registry) {
         return Instantiators.ofProvider(provider);
     }
     
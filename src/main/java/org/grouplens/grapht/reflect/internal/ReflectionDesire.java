@@ -29,7 +29,9 @@ import org.grouplens.grapht.InvalidBindingException;
 import org.grouplens.grapht.reflect.Desire;
 import org.grouplens.grapht.reflect.InjectionPoint;
 import org.grouplens.grapht.reflect.Satisfaction;
+import org.grouplens.grapht.reflect.Satisfactions;
 import org.grouplens.grapht.util.ClassProxy;
+import org.grouplens.grapht.util.Interning;
 import org.grouplens.grapht.util.Preconditions;
 import org.grouplens.grapht.util.Types;
 
@@ -81,7 +83,8 @@ public class ReflectionDesire implements Desire, Serializable {
 
         for (Field f: Types.getAllFields(type)) {
             if (f.getAnnotation(Inject.class) != null && !Modifier.isStatic(f.getModifiers())) {
-                desires.add(new ReflectionDesire(new FieldInjectionPoint(f)));
+                InjectionPoint ip = Interning.intern(new FieldInjectionPoint(f));
+                desires.add(Interning.intern(new ReflectionDesire(ip)));
             }
         }
 
@@ -101,12 +104,13 @@ public class ReflectionDesire implements Desire, Serializable {
         if (member.getParameterTypes()[param].equals(Optional.class)) {
             ip = new OptionalInjectionPoint(ip);
         }
-        return new ReflectionDesire(ip);
+        return Interning.intern(new ReflectionDesire(Interning.intern(ip)));
     }
     
     private final transient Class<?> desiredType;
     private final transient InjectionPoint injectPoint;
     private final transient Satisfaction satisfaction;
+    private transient int hashCode;
 
     /**
      * Create a ReflectionDesire that immediately wraps the given
@@ -188,28 +192,38 @@ public class ReflectionDesire implements Desire, Serializable {
     
     @Override
     public Desire restrict(Class<?> type) {
-        return new ReflectionDesire(type, injectPoint, null);
+        return Interning.intern(new ReflectionDesire(type, injectPoint, null));
     }
     
     @Override
     public Desire restrict(Satisfaction satis) {
-        return new ReflectionDesire(satis.getErasedType(), injectPoint, satis);
+        return intern(new ReflectionDesire(satis.getErasedType(), injectPoint, satis));
     }
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (!(o instanceof ReflectionDesire)) {
             return false;
         }
         ReflectionDesire r = (ReflectionDesire) o;
-        return (r.desiredType.equals(desiredType) && 
+        return (r.hashCode() == hashCode() &&
+                r.desiredType.equals(desiredType) && 
                 r.injectPoint.equals(injectPoint) && 
                 (r.satisfaction == null ? satisfaction == null : r.satisfaction.equals(satisfaction)));
     }
 
     @Override
     public int hashCode() {
-        return desiredType.hashCode() ^ injectPoint.hashCode() ^ (satisfaction == null ? 0 : satisfaction.hashCode());
+        // racy caching is safe: every thread computes the same value
+        int h = hashCode;
+        if (h == 0) {
+            h = desiredType.hashCode() ^ injectPoint.hashCode() ^ (satisfaction == null ? 0 : satisfaction.hashCode());
+            hashCode = h;
+        }
+        return h;
     }
 
     @Override
@@ -217,6 +231,18 @@ public class ReflectionDesire implements Desire, Serializable {
         return "Desire(" + desiredType.getSimpleName() + ", " + injectPoint + ")";
     }
 
+    /**
+     * Intern a desire, unless it carries a satisfaction that must not be shared.
+     */
+    private static ReflectionDesire intern(ReflectionDesire desire) {
+        Satisfaction satis = desire.satisfaction;
+        if (satis == null || Satisfactions.isInternable(satis)) {
+            return Interning.intern(desire);
+        } else {
+            return desire;
+        }
+    }
+
     private Object writeReplace() {
         return new SerialProxy(desiredType, injectPoint, satisfaction);
     }
@@ -241,9 +267,9 @@ public class ReflectionDesire implements Desire, Serializable {
         @SuppressWarnings("unchecked")
         private Object readResolve() throws ObjectStreamException {
             try {
-                return new ReflectionDesire(desiredType.resolve(),
-                                            injectionPoint,
-                                            satisfaction);
+                return intern(new ReflectionDesire(desiredType.resolve(),
+                                                   injectionPoint,
+                                                   satisfaction));
             } catch (ClassNotFoundException e) {
                 InvalidObjectException ex = new InvalidObjectException("cannot resolve " + desiredType);
                 ex.initCause(e);
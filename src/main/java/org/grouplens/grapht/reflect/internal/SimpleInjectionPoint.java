@@ -54,6 +54,7 @@ public final class SimpleInjectionPoint implements InjectionPoint, Serializable
     private final transient Annotation qualifier;
     private final transient Class<?> type;
     private final transient boolean nullable;
+    private transient int hashCode;
 
     public SimpleInjectionPoint(@Nullable Annotation qualifier, Class<?> type, boolean nullable) {
         Preconditions.notNull("type", type);
@@ -105,11 +106,19 @@ public final class SimpleInjectionPoint implements InjectionPoint, Serializable
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder().append(type).append(qualifier).toHashCode();
+        int h = hashCode;
+        if (h == 0) {
+            h = new HashCodeBuilder().append(type).append(qualifier).toHashCode();
+            hashCode = h;
+        }
+        return h;
     }
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (!(o instanceof SimpleInjectionPoint)) {
             return false;
         }
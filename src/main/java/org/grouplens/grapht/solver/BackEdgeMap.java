@@ -0,0 +1,177 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.solver;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.SetMultimap;
+import org.apache.commons.lang3.tuple.Pair;
+import org.grouplens.grapht.Component;
+import org.grouplens.grapht.Dependency;
+import org.grouplens.grapht.graph.DAGEdge;
+import org.grouplens.grapht.graph.DAGNode;
+import org.grouplens.grapht.reflect.Desire;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The back edges of a dependency solver's graph.  Edges are indexed by both head and tail, so
+ * that replacing nodes only touches the edges attached to the replaced nodes, and by head and
+ * initial desire for dependency lookup.  The index by head is a {@link PersistentSetMultimap}
+ * and doubles as the snapshot: a modification copies only the changed heads' edge sets and the
+ * trie path to them, and taking a snapshot is constant-time.
+ *
+ * <p>This class is not thread-safe; the solver only uses it while holding its own lock.</p>
+ *
+ * @author <a href="http://grouplens.org">GroupLens Research</a>
+ * @since 0.11
+ */
+final class BackEdgeMap {
+    private PersistentSetMultimap<DAGNode<Component,Dependency>, DAGEdge<Component,Dependency>> byHead =
+            PersistentSetMultimap.of();
+    private final SetMultimap<DAGNode<Component,Dependency>, DAGEdge<Component,Dependency>> byTail =
+            HashMultimap.create();
+    private final Map<Pair<DAGNode<Component,Dependency>, Desire>, DAGEdge<Component,Dependency>> byDesire =
+            new HashMap<Pair<DAGNode<Component,Dependency>, Desire>, DAGEdge<Component,Dependency>>();
+
+    /**
+     * Add a back edge.
+     * @param edge The edge to add.
+     */
+    public void put(DAGEdge<Component,Dependency> edge) {
+        ImmutableSet<DAGEdge<Component,Dependency>> edges = byHead.get(edge.getHead());
+        if (!edges.contains(edge)) {
+            byHead = byHead.with(edge.getHead(),
+                                 ImmutableSet.<DAGEdge<Component,Dependency>>builder()
+                                             .addAll(edges)
+                                             .add(edge)
+                                             .build());
+            byTail.put(edge.getTail(), edge);
+            byDesire.putIfAbsent(desireKey(edge), edge);
+        }
+    }
+
+    /**
+     * Get the back edge from a node for a desire.
+     * @param head The head node.
+     * @param desire The initial desire of the edge.
+     * @return A back edge from {@code head} whose initial desire is {@code desire}, or {@code null}
+     *         if there is no such edge.
+     */
+    @Nullable
+    public DAGEdge<Component,Dependency> get(DAGNode<Component,Dependency> head, Desire desire) {
+        return byDesire.get(Pair.of(head, desire));
+    }
+
+    /**
+     * Get the back edges from a node.
+     * @param head The head node.
+     * @return The back edges whose head is {@code head}.
+     */
+    public Set<DAGEdge<Component,Dependency>> get(DAGNode<Component,Dependency> head) {
+        return byHead.get(head);
+    }
+
+    /**
+     * Get all back edges.
+     * @return The back edges, as of this call.
+     */
+    public Iterable<DAGEdge<Component,Dependency>> edges() {
+        return byHead.values();
+    }
+
+    /**
+     * Update the back edges to reflect replaced nodes.  Only edges with a replaced head or tail
+     * are rewritten.
+     *
+     * @param replacements A map of old nodes to their replacements, as produced by
+     *                     {@link DAGNode#replaceNode(DAGNode, DAGNode, Map)}.
+     */
+    public void replaceNodes(Map<DAGNode<Component,Dependency>, DAGNode<Component,Dependency>> replacements) {
+        Set<DAGEdge<Component,Dependency>> affected = new LinkedHashSet<DAGEdge<Component,Dependency>>();
+        for (DAGNode<Component,Dependency> node: replacements.keySet()) {
+            affected.addAll(byHead.get(node));
+            affected.addAll(byTail.get(node));
+        }
+        if (affected.isEmpty()) {
+            return;
+        }
+
+        // the new edge sets of every head whose edges change
+        Map<DAGNode<Component,Dependency>, Set<DAGEdge<Component,Dependency>>> heads =
+                new HashMap<DAGNode<Component,Dependency>, Set<DAGEdge<Component,Dependency>>>();
+        for (DAGEdge<Component,Dependency> edge: affected) {
+            headEdges(heads, edge.getHead()).remove(edge);
+            byTail.remove(edge.getTail(), edge);
+            byDesire.remove(desireKey(edge), edge);
+        }
+        for (DAGEdge<Component,Dependency> edge: affected) {
+            DAGNode<Component,Dependency> newHead = replacements.get(edge.getHead());
+            if (newHead == null) {
+                newHead = edge.getHead();
+            }
+            DAGNode<Component,Dependency> newTail = replacements.get(edge.getTail());
+            if (newTail == null) {
+                newTail = edge.getTail();
+            }
+            DAGEdge<Component,Dependency> newEdge = DAGEdge.create(newHead, newTail, edge.getLabel());
+            headEdges(heads, newHead).add(newEdge);
+            byTail.put(newTail, newEdge);
+            byDesire.putIfAbsent(desireKey(newEdge), newEdge);
+        }
+        for (Map.Entry<DAGNode<Component,Dependency>, Set<DAGEdge<Component,Dependency>>> e: heads.entrySet()) {
+            byHead = byHead.with(e.getKey(), ImmutableSet.copyOf(e.getValue()));
+        }
+    }
+
+    /**
+     * Get an immutable snapshot of the back edges.  Snapshots share structure with each other and
+     * with this map, so this is constant-time.
+     *
+     * @return The back edges, as of this call.
+     */
+    public SetMultimap<DAGNode<Component,Dependency>, DAGEdge<Component,Dependency>> snapshot() {
+        return byHead;
+    }
+
+    private Set<DAGEdge<Component,Dependency>> headEdges(
+            Map<DAGNode<Component,Dependency>, Set<DAGEdge<Component,Dependency>>> heads,
+            DAGNode<Component,Dependency> head) {
+        Set<DAGEdge<Component,Dependency>> edges = heads.get(head);
+        if (edges == null) {
+            edges = new LinkedHashSet<DAGEdge<Component,Dependency>>(byHead.get(head));
+            heads.put(head, edges);
+        }
+        return edges;
+    }
+
+    private static Pair<DAGNode<Component,Dependency>, Desire> desireKey(DAGEdge<Component,Dependency> edge) {
+        return Pair.of(edge.getHead(), edge.getLabel().getInitialDesire());
+    }
+}
@@ -26,6 +26,7 @@ package org.grouplens.grapht.solver;
 
 import org.grouplens.grapht.CachePolicy;
 import org.grouplens.grapht.reflect.Desire;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.EnumSet;
 
@@ -79,6 +80,19 @@ public interface BindRule extends Comparable<BindRule> {
      */
     boolean matches(Desire desire);
 
+    /**
+     * Get the desired type this rule matches, if it only matches a single type.  Binding
+     * functions use this to index their rules; the default implementation returns {@code null}.
+     *
+     * @return The type that {@link #matches(Desire)} requires desires to have, or {@code null}
+     *         if the rule may match desires of any type.
+     * @since 0.11
+     */
+    @Nullable
+    default Class<?> getDependencyType() {
+        return null;
+    }
+
     /**
      * Create a new bind rule builder initialized to copy this bind rule.  Use this to create a copy
      * of this bind rule that differs in some way.
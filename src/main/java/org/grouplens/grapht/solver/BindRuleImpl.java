@@ -127,6 +127,11 @@ final class BindRuleImpl implements BindRule, Serializable {
         Preconditions.isAssignable(this.depType, this.implType);
     }
 
+    @Override
+    public Class<?> getDependencyType() {
+        return depType;
+    }
+
     /**
      * Get the rule's qualifier matcher.
      *
@@ -45,7 +45,12 @@ public enum BindingFlag {
     /**
      * The binding should be skipped if one of its results' dependencies cannot be satisfied.
      */
-    SKIPPABLE;
+    SKIPPABLE,
+    /**
+     * The binding's result should be injected lazily, through a proxy that defers construction
+     * until first use.
+     */
+    LAZY;
 
     public static EnumSet<BindingFlag> emptySet() {
         return EnumSet.noneOf(BindingFlag.class);
@@ -25,6 +25,8 @@
 package org.grouplens.grapht.solver;
 
 import org.grouplens.grapht.ResolutionException;
+import org.grouplens.grapht.metrics.InjectorMetrics;
+import org.grouplens.grapht.reflect.Desire;
 
 import org.jetbrains.annotations.Nullable;
 
@@ -44,4 +46,49 @@ public interface BindingFunction {
      */
     @Nullable
     BindingResult bind(InjectionContext context, DesireChain desire) throws ResolutionException;
+
+    /**
+     * Find the applicable binding, recording metrics about the search.  The default
+     * implementation ignores the metrics and delegates to {@link #bind(InjectionContext, DesireChain)}.
+     *
+     * @param context The context.
+     * @param desire The desire.
+     * @param metrics The metrics to update.
+     * @return The result of binding {@code desire}, or {@code null} if there is no binding.
+     * @throws ResolutionException If there is an error (such as ambiguous bindings).
+     * @since 0.11
+     */
+    @Nullable
+    default BindingResult bind(InjectionContext context, DesireChain desire,
+                               InjectorMetrics metrics) throws ResolutionException {
+        return bind(context, desire);
+    }
+
+    /**
+     * Query whether this function's results can depend on the injection context.  Functions
+     * that only look at the desire chain should return {@code false}; the solver uses this to
+     * share work across paths that reach the same node in different contexts.  The default
+     * implementation conservatively returns {@code true}.
+     *
+     * @return {@code true} if {@link #bind(InjectionContext, DesireChain)} may return different
+     *         results for the same desire chain in different contexts.
+     * @since 0.11
+     */
+    default boolean isContextSensitive() {
+        return true;
+    }
+
+    /**
+     * Query whether this function could bind a desire in any context.  If this method returns
+     * {@code false}, then {@link #bind(InjectionContext, DesireChain)} must return {@code null}
+     * for every chain whose current desire is {@code desire}; the solver uses this to skip
+     * desires that a function cannot affect.  The default implementation returns {@code true}.
+     *
+     * @param desire The desire.
+     * @return {@code false} if this function will never bind {@code desire}.
+     * @since 0.11
+     */
+    default boolean mayBind(Desire desire) {
+        return true;
+    }
 }
@@ -114,6 +114,14 @@ public class BindingResult {
         return flags.contains(BindingFlag.SKIPPABLE);
     }
 
+    /**
+     * Query whether this binding result should be injected lazily.
+     * @return {@code true} if the resulting dependency should be constructed on first use.
+     */
+    public boolean isLazy() {
+        return flags.contains(BindingFlag.LAZY);
+    }
+
     public static class Builder {
         private Desire desire;
         private CachePolicy policy;
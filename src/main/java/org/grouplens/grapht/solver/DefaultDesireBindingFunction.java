@@ -78,6 +78,11 @@ public class DefaultDesireBindingFunction implements BindingFunction {
         return create(null);
     }
     
+    @Override
+    public boolean isContextSensitive() {
+        return false;
+    }
+
     @Override
     public BindingResult bind(InjectionContext context, DesireChain dchain) throws ResolutionException {
         Desire desire = dchain.getCurrentDesire();
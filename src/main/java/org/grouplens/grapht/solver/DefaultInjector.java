@@ -24,10 +24,13 @@
  */
 package org.grouplens.grapht.solver;
 
+import com.google.common.collect.SetMultimap;
 import net.jcip.annotations.ThreadSafe;
 import org.grouplens.grapht.*;
+import org.grouplens.grapht.Module;
 import org.grouplens.grapht.graph.DAGEdge;
 import org.grouplens.grapht.graph.DAGNode;
+import org.grouplens.grapht.metrics.InjectorMetrics;
 import org.grouplens.grapht.reflect.Desire;
 import org.grouplens.grapht.reflect.Desires;
 import org.jetbrains.annotations.NotNull;
@@ -36,6 +39,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * <p>
@@ -107,6 +114,25 @@ public class DefaultInjector implements Injector {
      * @throws NullPointerException if spi or functions are null
      */
     public DefaultInjector(CachePolicy defaultPolicy, int maxDepth, BindingFunction... functions) {
+        this(defaultPolicy, maxDepth, InjectorMetrics.disabled(), functions);
+    }
+
+    /**
+     * Create a new DefaultInjector that records metrics.  The injector's solver and container
+     * record their metrics in {@code metrics}, and the injector records the time threads spend
+     * waiting for its lock.
+     *
+     * @param defaultPolicy The CachePolicy used in place of NO_PREFERENCE
+     * @param maxDepth The maximum depth of the dependency hierarchy
+     * @param metrics The metrics to record
+     * @param functions The BindingFunctions to use, ordered with highest
+     *            priority functions first
+     * @throws IllegalArgumentException if maxDepth is less than 1, or if
+     *             defaultPolicy is NO_PREFERENCE
+     * @since 0.11
+     */
+    public DefaultInjector(CachePolicy defaultPolicy, int maxDepth, InjectorMetrics metrics,
+                           BindingFunction... functions) {
         if (defaultPolicy.equals(CachePolicy.NO_PREFERENCE)) {
             throw new IllegalArgumentException("Default CachePolicy cannot be NO_PREFERENCE");
         }
@@ -114,9 +140,19 @@ public class DefaultInjector implements Injector {
         solver = DependencySolver.newBuilder()
                                  .addBindingFunctions(functions)
                                  .setMaxDepth(maxDepth)
+                                 .setMetrics(metrics)
                                  .build();
         manager = new LifecycleManager();
-        instantiator = InjectionContainer.create(defaultPolicy, manager);
+        instantiator = InjectionContainer.create(defaultPolicy, manager, metrics);
+    }
+
+    /**
+     * Create a DefaultInjector from an existing solver and container.  Used for child injectors.
+     */
+    private DefaultInjector(DependencySolver solver, InjectionContainer container) {
+        this.solver = solver;
+        instantiator = container;
+        manager = container.getLifecycleManager();
     }
     
     /**
@@ -125,6 +161,16 @@ public class DefaultInjector implements Injector {
     public DependencySolver getSolver() {
         return solver;
     }
+
+    /**
+     * Get the metrics recorded by this injector.
+     *
+     * @return The injector's metrics ({@link InjectorMetrics#disabled()} if none were configured).
+     * @since 0.11
+     */
+    public InjectorMetrics getMetrics() {
+        return solver.getMetrics();
+    }
     
     @NotNull
     @Override
@@ -148,29 +194,106 @@ public class DefaultInjector implements Injector {
         return type.cast(obj);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The desire is resolved on the calling thread.  Memoized dependencies of the requested
+     * component are then constructed on {@code executor}, with independent dependencies built
+     * concurrently, following the same dependency graph as {@link #getInstance(Annotation, Class)}.
+     */
+    @NotNull
+    @Override
+    public <T> CompletableFuture<T> getInstanceAsync(Annotation qualifier, Class<T> type, Executor executor) {
+        Desire desire = Desires.create(qualifier, type, false);
+        DAGNode<Component, Dependency> node;
+        SetMultimap<DAGNode<Component, Dependency>, DAGEdge<Component, Dependency>> backEdges;
+        try {
+            long start = solver.getMetrics().startTimer();
+            synchronized (this) {
+                solver.getMetrics().recordLockAcquired(start);
+                node = resolveNode(desire);
+                backEdges = solver.getBackEdges();
+            }
+        } catch (InjectionException e) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        return instantiator.instantiateAsync(node, backEdges, executor)
+                           .thenApply(type::cast);
+    }
+
     private Object getInstance(Desire desire) throws InjectionException {
-        // All Provider cache access, graph resolution, etc. occur
-        // within this exclusive lock so we know everything is thread safe
-        // albeit in a non-optimal way.
+        // Graph resolution happens within this exclusive lock, since it updates the
+        // solver's graph.  Instantiation does not: memoized instantiators coordinate
+        // construction of each node on their own, so unrelated components can be
+        // built concurrently.
+        DAGNode<Component, Dependency> resolvedNode;
+        SetMultimap<DAGNode<Component, Dependency>, DAGEdge<Component, Dependency>> backEdges;
+        long start = solver.getMetrics().startTimer();
         synchronized(this) {
-            // check if the desire is already in the graph
-            DAGEdge<Component, Dependency> resolved =
-                    solver.getGraph()
-                          .getOutgoingEdgeWithLabel(d -> d.hasInitialDesire(desire));
-
-            // The edge is only non-null if instantiate() has been called before,
-            // it may be present in the graph at a deeper node. If that's the case
-            // it will be properly merged after regenerating the graph at the root context.
-            if (resolved == null) {
-                logger.info("Must resolve desire: {}", desire);
-                solver.resolve(desire);
-                resolved = solver.getGraph()
-                                 .getOutgoingEdgeWithLabel(d -> d.hasInitialDesire(desire));
-            }
+            solver.getMetrics().recordLockAcquired(start);
+            resolvedNode = resolveNode(desire);
+            backEdges = solver.getBackEdges();
+        }
+        // Check if the provider for the resolved node is in our cache
+        return instantiator.makeInstantiator(resolvedNode, backEdges).instantiate();
+    }
+
+    /**
+     * Resolve a desire to the node that satisfies it, resolving it in the graph if needed.  Must
+     * be called while holding this injector's lock.
+     *
+     * @param desire The desire to resolve.
+     * @return The node satisfying the desire.
+     * @throws ResolutionException if the desire cannot be resolved.
+     */
+    private DAGNode<Component, Dependency> resolveNode(Desire desire) throws ResolutionException {
+        // check if the desire is already in the graph
+        DAGEdge<Component, Dependency> resolved =
+                solver.getGraph()
+                      .getOutgoingEdgeByKey(Dependency.INITIAL_DESIRE, desire);
+
+        // The edge is only non-null if instantiate() has been called before,
+        // it may be present in the graph at a deeper node. If that's the case
+        // it will be properly merged after regenerating the graph at the root context.
+        if (resolved == null) {
+            logger.info("Must resolve desire: {}", desire);
+            solver.resolve(desire);
+            resolved = solver.getGraph()
+                             .getOutgoingEdgeByKey(Dependency.INITIAL_DESIRE, desire);
+        }
+        return resolved.getTail();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The child's solver starts from this injector's current graph, re-resolving only the
+     * desires affected by the new bindings.  Components in the unaffected part of the graph are
+     * instantiated by this injector, so the child shares their memoized instances.  Closing the
+     * child only shuts down the components it instantiated itself.
+     */
+    @Override
+    public Injector createChild(Module... modules) throws InjectionException {
+        BindingFunctionBuilder config = new BindingFunctionBuilder(true);
+        for (Module m: modules) {
+            config.applyModule(m);
+        }
+        List<BindingFunction> functions =
+                Arrays.asList(config.build(BindingFunctionBuilder.RuleSet.EXPLICIT),
+                              config.build(BindingFunctionBuilder.RuleSet.INTERMEDIATE_TYPES),
+                              config.build(BindingFunctionBuilder.RuleSet.SUPER_TYPES));
 
-            // Check if the provider for the resolved node is in our cache
-            DAGNode<Component, Dependency> resolvedNode = resolved.getTail();
-            return instantiator.makeInstantiator(resolvedNode, solver.getBackEdges()).instantiate();
+        long start = solver.getMetrics().startTimer();
+        synchronized (this) {
+            solver.getMetrics().recordLockAcquired(start);
+            DependencySolver childSolver = solver.createChild(functions);
+            InjectionContainer childContainer =
+                    instantiator.createChild(solver.getGraph().getReachableNodes(),
+                                             solver.getBackEdges(),
+                                             new LifecycleManager());
+            return new DefaultInjector(childSolver, childContainer);
         }
     }
 
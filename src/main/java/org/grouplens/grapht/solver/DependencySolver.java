@@ -26,22 +26,26 @@ package org.grouplens.grapht.solver;
 
 import com.google.common.base.Functions;
 import com.google.common.collect.HashMultimap;
-import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
 import org.apache.commons.lang3.tuple.Pair;
 import org.grouplens.grapht.CachePolicy;
 import org.grouplens.grapht.Component;
 import org.grouplens.grapht.Dependency;
 import org.grouplens.grapht.ResolutionException;
+import org.grouplens.grapht.annotation.Lazy;
 import org.grouplens.grapht.graph.DAGEdge;
 import org.grouplens.grapht.graph.DAGNode;
 import org.grouplens.grapht.graph.DAGNodeBuilder;
 import org.grouplens.grapht.graph.MergePool;
+import org.grouplens.grapht.metrics.InjectorEvents;
+import org.grouplens.grapht.metrics.InjectorMetrics;
 import org.grouplens.grapht.reflect.Desire;
 import org.grouplens.grapht.reflect.Satisfaction;
 import org.grouplens.grapht.reflect.internal.NullSatisfaction;
 import org.grouplens.grapht.util.Preconditions;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -94,8 +98,17 @@ public class DependencySolver {
     private final List<BindingFunction> triggerFunctions;
     
     private DAGNode<Component,Dependency> graph;
-    private SetMultimap<DAGNode<Component,Dependency>, DAGEdge<Component,Dependency>> backEdges;
+    /**
+     * The nodes reachable from {@link #graph}, maintained incrementally as the graph grows.
+     */
+    private Set<DAGNode<Component,Dependency>> graphNodes;
+    /**
+     * The incoming edges of the nodes in {@link #graphNodes}, maintained along with it.
+     */
+    private SetMultimap<DAGNode<Component,Dependency>, DAGEdge<Component,Dependency>> incomingEdges;
+    private final BackEdgeMap backEdges;
     private MergePool<Component,Dependency> mergePool;
+    private final InjectorMetrics metrics;
 
     /**
      * Create a DependencySolver that uses the given functions, and max
@@ -104,14 +117,17 @@ public class DependencySolver {
      * @param bindFunctions The binding functions that control desire bindings
      * @param maxDepth A maximum depth of the graph before it's determined that
      *            a cycle exists
+     * @param metrics The metrics to record
      * @throws IllegalArgumentException if maxDepth is less than 1
      * @throws NullPointerException if bindFunctions is null
      */
     DependencySolver(List<BindingFunction> bindFunctions,
                      List<BindingFunction> triggers,
-                     CachePolicy defaultPolicy, int maxDepth) {
+                     CachePolicy defaultPolicy, int maxDepth,
+                     InjectorMetrics metrics) {
         Preconditions.notNull("bindFunctions", bindFunctions);
         Preconditions.notNull("defaultPolicy", defaultPolicy);
+        Preconditions.notNull("metrics", metrics);
         if (maxDepth <= 0) {
             throw new IllegalArgumentException("Max depth must be at least 1");
         }
@@ -120,9 +136,13 @@ public class DependencySolver {
         this.triggerFunctions = new ArrayList<BindingFunction>(triggers);
         this.maxDepth = maxDepth;
         this.defaultPolicy = defaultPolicy;
+        this.metrics = metrics;
         
         graph = DAGNode.singleton(ROOT_SATISFACTION);
-        backEdges = HashMultimap.create();
+        graphNodes = new HashSet<DAGNode<Component, Dependency>>();
+        graphNodes.add(graph);
+        incomingEdges = HashMultimap.create();
+        backEdges = new BackEdgeMap();
         mergePool = MergePool.create();
 
         logger.info("DependencySolver created, max depth: {}", maxDepth);
@@ -137,6 +157,16 @@ public class DependencySolver {
         return new DependencySolverBuilder();
     }
     
+    /**
+     * Get the metrics recorded by this solver.
+     *
+     * @return The solver's metrics ({@link InjectorMetrics#disabled()} if none were configured).
+     * @since 0.11
+     */
+    public InjectorMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * Get the current full dependency graph. This consists of a synthetic root node with edges
      * to the resolutions of all dependencies passed to {@link #resolve(Desire)}.
@@ -153,10 +183,11 @@ public class DependencySolver {
      * node being provided, and this map will report that edge.
      *
      * @return A snapshot of the map of back-edges.  This snapshot is entirely independent of the
-     *         back edge map maintained by the dependency solver.
+     *         back edge map maintained by the dependency solver; it is shared by all calls until the
+     *         back edges next change.
      */
-    public SetMultimap<DAGNode<Component, Dependency>, DAGEdge<Component, Dependency>> getBackEdges() {
-        return ImmutableSetMultimap.copyOf(backEdges);
+    public synchronized SetMultimap<DAGNode<Component, Dependency>, DAGEdge<Component, Dependency>> getBackEdges() {
+        return backEdges.snapshot();
     }
 
     /**
@@ -166,12 +197,8 @@ public class DependencySolver {
      */
     public synchronized DAGNode<Component, Dependency> getBackEdge(DAGNode<Component, Dependency> parent,
                                                                    Desire desire) {
-        return backEdges.get(parent)
-                .stream()
-                .filter(e -> e.getLabel().hasInitialDesire(desire))
-                .findFirst()
-                .map(DAGEdge::getTail)
-                .orElse(null);
+        DAGEdge<Component, Dependency> edge = backEdges.get(parent, desire);
+        return edge == null ? null : edge.getTail();
     }
 
     /**
@@ -192,7 +219,20 @@ public class DependencySolver {
      */
     public synchronized void resolve(Desire desire) throws ResolutionException {
         logger.info("Resolving desire: {}", desire);
+        Object event = InjectorEvents.begin(InjectorEvents.Kind.RESOLVE);
+        try {
+            resolveWithDeferrals(desire);
+        } finally {
+            InjectorEvents.end(event, desire, 0);
+        }
+    }
 
+    /**
+     * Resolve a desire into the graph, processing any deferred dependencies it produces.
+     *
+     * @param desire The desire to include in the graph
+     */
+    private void resolveWithDeferrals(Desire desire) throws ResolutionException {
         Queue<Deferral> deferralQueue = new ArrayDeque<Deferral>();
 
         // before any deferred nodes are processed, we use a synthetic root
@@ -209,11 +249,16 @@ public class DependencySolver {
                 Pair<DAGNode<Component, Dependency>, Dependency> rootNode =
                         resolveFully(desire, current.context, deferralQueue);
                 // add this to the global graph
+                DAGNode<Component, Dependency> oldGraph = graph;
                 graph = DAGNode.copyBuilder(graph)
-                               .addEdge(mergePool.merge(rootNode.getLeft()),
+                               .addEdge(merge(rootNode.getLeft()),
                                         rootNode.getRight())
                                .build();
-            } else if (graph.getReachableNodes().contains(parent)) {
+                unindexNode(oldGraph);
+                indexNodes(graph);
+                assert graphNodes.equals(graph.getReachableNodes());
+                assert isIncomingEdgeIndexCurrent();
+            } else if (graphNodes.contains(parent)) {
                 // the node needs to be re-scanned.  This means that it was not consolidated by
                 // a previous merge operation.  This branch only arises with provider injection.
                 Satisfaction sat = parent.getLabel().getSatisfaction();
@@ -223,12 +268,12 @@ public class DependencySolver {
                     Pair<DAGNode<Component, Dependency>, Dependency> result =
                             resolveFully(d, current.context, deferralQueue);
                     // merge it in
-                    DAGNode<Component, Dependency> merged = mergePool.merge(result.getLeft());
+                    DAGNode<Component, Dependency> merged = merge(result.getLeft());
                     // now see if there's a real cycle
                     if (merged.getReachableNodes().contains(parent)) {
                         // parent node is referenced from merged, we have a circle!
                         // that means we need a back edge
-                        backEdges.put(parent, DAGEdge.create(parent, merged, result.getRight()));
+                        backEdges.put(DAGEdge.create(parent, merged, result.getRight()));
                     } else {
                         // an edge from parent to merged does not add a cycle
                         // we have to update graph right away so it's available to merge the next
@@ -248,33 +293,120 @@ public class DependencySolver {
         }
     }
 
+    /**
+     * Merge a graph into this solver's merge pool, recording merge metrics.
+     *
+     * @param node The graph to merge.
+     * @return The merged graph.
+     */
+    private DAGNode<Component, Dependency> merge(DAGNode<Component, Dependency> node) {
+        if (!metrics.isEnabled()) {
+            return mergePool.merge(node);
+        }
+        int before = mergePool.size();
+        DAGNode<Component, Dependency> merged = mergePool.merge(node);
+        int nodes = node.getReachableNodes().size();
+        metrics.recordMerge(nodes, nodes - (mergePool.size() - before));
+        return merged;
+    }
+
     private void replaceNode(DAGNode<Component,Dependency> old,
                              DAGNode<Component,Dependency> repl) {
         Map<DAGNode<Component,Dependency>,
                 DAGNode<Component,Dependency>> memory = Maps.newHashMap();
-        graph = graph.replaceNode(old, repl, memory);
-
-        // loop over a snapshot of the list, replacing nodes
-        Collection<DAGEdge<Component, Dependency>> oldBackEdges = backEdges.values();
-        backEdges = HashMultimap.create();
-        for (DAGEdge<Component,Dependency> edge: oldBackEdges) {
-            DAGNode<Component,Dependency> newHead, newTail;
-            newHead = memory.get(edge.getHead());
-            if (newHead == null) {
-                newHead = edge.getHead();
+        graph = graph.replaceNode(old, repl, memory, incomingEdges::get);
+
+        // the replaced nodes are gone; their replacements and anything new below them are added
+        for (DAGNode<Component, Dependency> node: memory.keySet()) {
+            unindexNode(node);
+        }
+        for (DAGNode<Component, Dependency> node: memory.values()) {
+            indexNodes(node);
+        }
+        assert graphNodes.equals(graph.getReachableNodes());
+        assert isIncomingEdgeIndexCurrent();
+
+        backEdges.replaceNodes(memory);
+    }
+
+    /**
+     * Check the incoming edge index against the graph's own index, for use in assertions.
+     */
+    private boolean isIncomingEdgeIndexCurrent() {
+        for (DAGNode<Component, Dependency> node: graphNodes) {
+            if (!incomingEdges.get(node).equals(graph.getIncomingEdges(node))) {
+                return false;
             }
-            newTail = memory.get(edge.getTail());
-            if (newTail == null) {
-                newTail = edge.getTail();
+        }
+        return incomingEdges.keySet().equals(Sets.difference(graphNodes, Collections.singleton(graph)));
+    }
+
+    /**
+     * Add a node and the nodes below it to the node and incoming edge indexes.  Nodes already in
+     * the index are not traversed, since everything below them has already been indexed.
+     *
+     * @param node The node to index.
+     */
+    private void indexNodes(DAGNode<Component, Dependency> node) {
+        Deque<DAGNode<Component, Dependency>> work = new ArrayDeque<DAGNode<Component, Dependency>>();
+        work.push(node);
+        while (!work.isEmpty()) {
+            DAGNode<Component, Dependency> next = work.pop();
+            if (graphNodes.add(next)) {
+                for (DAGEdge<Component, Dependency> edge: next.getOutgoingEdges()) {
+                    incomingEdges.put(edge.getTail(), edge);
+                    work.push(edge.getTail());
+                }
             }
-            DAGEdge<Component,Dependency> newEdge;
-            if (newHead.equals(edge.getHead()) && newTail.equals(edge.getTail())) {
-                newEdge = edge;
-            } else {
-                newEdge = DAGEdge.create(newHead, newTail, edge.getLabel());
+        }
+    }
+
+    /**
+     * Remove a node that is no longer in the graph from the node and incoming edge indexes.  The
+     * node's children are left in the index.
+     *
+     * @param node The node to remove.
+     */
+    private void unindexNode(DAGNode<Component, Dependency> node) {
+        graphNodes.remove(node);
+        incomingEdges.removeAll(node);
+        for (DAGEdge<Component, Dependency> edge: node.getOutgoingEdges()) {
+            incomingEdges.remove(edge.getTail(), edge);
+        }
+    }
+
+    /**
+     * Create a child solver whose binding functions take precedence over this solver's.  The
+     * child starts from this solver's current graph, {@linkplain #rewrite(DAGNode) rewritten}
+     * with the child's binding functions as the only triggers, so only the desires affected by
+     * the new bindings are re-resolved.  Nodes that are not affected are shared with this
+     * solver's graph, and the child's merge pool starts with the contents of this solver's pool.
+     *
+     * <p>Like any rewrite, this fails if the affected region requires deferred (provider
+     * injection) resolution.</p>
+     *
+     * @param bindFunctions The child's binding functions, ordered with highest priority first.
+     * @return The child solver.
+     * @throws ResolutionException if there is an error re-resolving affected desires.
+     * @since 0.11
+     */
+    public synchronized DependencySolver createChild(List<BindingFunction> bindFunctions) throws ResolutionException {
+        List<BindingFunction> childFunctions = new ArrayList<BindingFunction>(bindFunctions);
+        childFunctions.addAll(functions);
+        DependencySolver child = new DependencySolver(childFunctions, bindFunctions,
+                                                      defaultPolicy, maxDepth, metrics);
+        child.mergePool = mergePool.copy();
+        child.graph = child.merge(child.rewrite(graph));
+
+        Set<DAGNode<Component, Dependency>> reachable = child.graph.getReachableNodes();
+        child.graphNodes.clear();
+        child.indexNodes(child.graph);
+        for (DAGEdge<Component, Dependency> edge: backEdges.edges()) {
+            if (reachable.contains(edge.getHead())) {
+                child.backEdges.put(edge);
             }
-            backEdges.put(newHead, newEdge);
         }
+        return child;
     }
 
     /**
@@ -284,6 +416,13 @@ public class DependencySolver {
      * to a node is matched by a trigger binding function, then it is resolved using the binding
      * functions and replaced with the resulting (merged) node.  Rewriting proceeds from the root
      * down, but does not consider the children of nodes generated by the rewriting process.</p>
+     * <p>Each node is walked at most once per distinct context (or once in total, if no trigger
+     * function is {@linkplain BindingFunction#isContextSensitive() context-sensitive}), and
+     * triggered desires are resolved once per context.  Since replacements are recorded per edge,
+     * an edge shared by several paths receives the replacement computed on the first path that
+     * reaches it.  Edges whose desires no trigger {@linkplain BindingFunction#mayBind(Desire) may
+     * bind}, and the subgraphs containing only such edges, are skipped without consulting the
+     * triggers.</p>
      *
      * @param graph The graph to rewrite.
      * @return A rewritten version of the graph.
@@ -295,11 +434,13 @@ public class DependencySolver {
 
         logger.debug("rewriting graph with {} nodes", graph.getReachableNodes().size());
         // We proceed in three stages.
-        Map<DAGEdge<Component, Dependency>, DAGEdge<Component,Dependency>> replacementSubtrees =
-                Maps.newHashMap();
+        RewriteState state = new RewriteState(triggerFunctions,
+                                              isContextSensitive(functions));
         walkGraphForReplacements(graph,
                                  InjectionContext.singleton(graph.getLabel().getSatisfaction()),
-                                 replacementSubtrees);
+                                 state);
+        Map<DAGEdge<Component, Dependency>, DAGEdge<Component,Dependency>> replacementSubtrees =
+                state.replacements;
 
         DAGNode<Component, Dependency> stage2 =
                 graph.transformEdges(Functions.forMap(replacementSubtrees, null));
@@ -316,30 +457,42 @@ public class DependencySolver {
      * Walk the graph, looking for replacements.
      * @param root The node to walk.
      * @param context The context leading to this node.
-     * @param replacements The map of replacements to build. This maps edges to their replacement
-     *                     targets and labels.
+     * @param state The rewrite state, holding the map of replacements to build (mapping edges
+     *              to their replacement targets and labels) and the memoized walk results.
      * @throws ResolutionException If there is a resolution error rewriting the graph.
      */
     private void walkGraphForReplacements(DAGNode<Component, Dependency> root,
                                           InjectionContext context,
-                                          Map<DAGEdge<Component, Dependency>, DAGEdge<Component, Dependency>> replacements) throws ResolutionException {
+                                          RewriteState state) throws ResolutionException {
         assert context.getTailValue().getLeft().equals(root.getLabel().getSatisfaction());
+        if (!state.visit(root, context)) {
+            logger.debug("already walked {}, skipping", root.getLabel());
+            return;
+        }
         for (DAGEdge<Component, Dependency> edge: root.getOutgoingEdges()) {
-            logger.debug("considering {} for replacement", edge.getTail().getLabel());
             Desire desire = edge.getLabel().getDesireChain().getInitialDesire();
+            boolean triggerable = !edge.getLabel().isFixed() && state.isTriggerable(desire);
+            if (!triggerable && !state.isAffected(edge.getTail())) {
+                // no trigger can rewrite this edge or anything below it
+                continue;
+            }
+            logger.debug("considering {} for replacement", edge.getTail().getLabel());
             DesireChain chain = DesireChain.singleton(desire);
             Pair<DAGNode<Component, Dependency>, Dependency> repl = null;
-            if (!edge.getLabel().isFixed()) {
+            if (triggerable) {
                 for (BindingFunction bf: triggerFunctions) {
-                    BindingResult result = bf.bind(context, chain);
+                    BindingResult result = bf.bind(context, chain, metrics);
                     if (result != null) {
-                        // resolve the node
-                        // we could reuse the resolution, but perf savings isn't worth complexity
-                        repl = resolveFully(desire, context, null);
+                        // resolve the node, reusing earlier resolutions of the same desire
+                        repl = state.getResolution(desire, context);
+                        if (repl == null) {
+                            repl = resolveFully(desire, context, null);
+                            state.putResolution(desire, context, repl);
+                        }
                         break;
                     }
                 }
-            } else {
+            } else if (edge.getLabel().isFixed()) {
                 logger.debug("{} is fixed, skipping", edge.getTail().getLabel());
             }
             if (repl == null) {
@@ -351,17 +504,26 @@ public class DependencySolver {
                                                            .getDesireChain()
                                                            .getInitialDesire()
                                                            .getInjectionPoint());
-                walkGraphForReplacements(edge.getTail(), next, replacements);
-            } else {
+                walkGraphForReplacements(edge.getTail(), next, state);
+            } else if (!state.replacements.containsKey(edge)) {
                 // trigger binding, add a replacement
                 logger.info("replacing {} with {}",
                             edge.getTail().getLabel(),
                             repl.getLeft().getLabel());
-                replacements.put(edge, DAGEdge.create(root, repl.getLeft(), repl.getRight()));
+                state.replacements.put(edge, DAGEdge.create(root, repl.getLeft(), repl.getRight()));
             }
         }
     }
 
+    private static boolean isContextSensitive(List<BindingFunction> fns) {
+        for (BindingFunction fn: fns) {
+            if (fn.isContextSensitive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Resolve a desire and its dependencies, inserting them into the graph.
      *
@@ -376,7 +538,17 @@ public class DependencySolver {
         if (context.size() > maxDepth) {
             throw new CyclicDependencyException(desire, "Maximum context depth of " + maxDepth + " was reached");
         }
-        
+
+        Object event = InjectorEvents.begin(InjectorEvents.Kind.RESOLVE_FULLY);
+        try {
+            return resolveNodeAndDeps(desire, context, deferQueue);
+        } finally {
+            InjectorEvents.end(event, desire, context.size());
+        }
+    }
+
+    private Pair<DAGNode<Component,Dependency>,Dependency>
+    resolveNodeAndDeps(Desire desire, InjectionContext context, Queue<Deferral> deferQueue) throws ResolutionException {
         // resolve the current node
         Resolution result = resolve(desire, context);
 
@@ -444,15 +616,18 @@ public class DependencySolver {
         CachePolicy policy = CachePolicy.NO_PREFERENCE;
         boolean fixed = false;
         boolean skippable = false;
+        boolean lazy = desire.getInjectionPoint().getAttribute(Lazy.class) != null;
+        metrics.recordDesireResolved();
 
         while(true) {
             logger.debug("Current desire: {}", chain.getCurrentDesire());
             
             BindingResult binding = null;
             for (BindingFunction bf: functions) {
-                binding = bf.bind(context, chain);
+                binding = bf.bind(context, chain, metrics);
                 if (binding != null && !chain.getPreviousDesires().contains(binding.getDesire())) {
                     // found a binding that hasn't been used before
+                    metrics.recordBindingHit(bf);
                     break;
                 }
             }
@@ -466,10 +641,11 @@ public class DependencySolver {
                 terminate = binding.terminates(); // binding decides if we stop
                 defer = binding.isDeferred();
                 fixed |= binding.isFixed();
+                lazy |= binding.isLazy();
                 skippable = binding.isSkippable();
                 
                 // upgrade policy if needed
-                if (binding.getCachePolicy().compareTo(policy) > 0) {
+                if (binding.getCachePolicy().getPrecedence() > policy.getPrecedence()) {
                     policy = binding.getCachePolicy();
                 }
             }
@@ -485,7 +661,8 @@ public class DependencySolver {
                     }
                 }
                 
-                return new Resolution(chain.getCurrentDesire().getSatisfaction(), policy, chain, fixed, defer, skippable, false);
+                return new Resolution(chain.getCurrentDesire().getSatisfaction(), policy, chain,
+                                      fixed, lazy, defer, skippable, false);
             } else if (binding == null) {
                 // no more desires to process, it cannot be satisfied
                 throw new UnresolvableDependencyException(chain, context);
@@ -501,12 +678,14 @@ public class DependencySolver {
         private final CachePolicy policy;
         private final DesireChain desires;
         private final boolean fixed;
+        private final boolean lazy;
         private final boolean deferDependencies;
         private final boolean skippable;
         private final boolean backtracked;
 
         public Resolution(Satisfaction satisfaction, CachePolicy policy, 
                           DesireChain desires, boolean fixed,
+                          boolean lazy,
                           boolean deferDependencies,
                           boolean skippable,
                           boolean backtracked) {
@@ -514,6 +693,7 @@ public class DependencySolver {
             this.policy = policy;
             this.desires = desires;
             this.fixed = fixed;
+            this.lazy = lazy;
             this.deferDependencies = deferDependencies;
             this.skippable = skippable;
             this.backtracked = backtracked;
@@ -528,6 +708,9 @@ public class DependencySolver {
             if (fixed) {
                 flags.add(Dependency.Flag.FIXED);
             }
+            if (lazy) {
+                flags.add(Dependency.Flag.LAZY);
+            }
             return Dependency.create(desires, flags);
         }
 
@@ -552,6 +735,7 @@ public class DependencySolver {
                                       policy, // FIXME Backtrack the policy
                                       shrunk,
                                       fixed,  // FIXME If we allow skippability on non-default bindings, this is wrong
+                                      lazy,
                                       deferDependencies, // FIXME same here
                                       false, true);
             } else {
@@ -564,6 +748,108 @@ public class DependencySolver {
             return "(" + satisfaction + ", " + policy + ")";
         }
     }
+
+    /**
+     * Memoized state for a single graph rewrite.  Walked nodes and resolved desires are keyed
+     * by context only when the relevant binding functions can observe it.  The state also
+     * indexes which desires the triggers {@linkplain BindingFunction#mayBind(Desire) may bind},
+     * and which nodes have such a desire somewhere below them.
+     */
+    private static class RewriteState {
+        private final Map<DAGEdge<Component, Dependency>, DAGEdge<Component, Dependency>> replacements =
+                Maps.newHashMap();
+        private final Set<Object> visited = new HashSet<Object>();
+        private final Map<Object, Pair<DAGNode<Component, Dependency>, Dependency>> resolutions =
+                Maps.newHashMap();
+        private final Map<Desire, Boolean> triggerable = Maps.newHashMap();
+        private final Map<DAGNode<Component, Dependency>, Boolean> affected = Maps.newHashMap();
+        private final List<BindingFunction> triggers;
+        private final boolean walkByContext;
+        private final boolean resolveByContext;
+
+        public RewriteState(List<BindingFunction> triggers, boolean resolveByContext) {
+            this.triggers = triggers;
+            // replacements are kept per edge, so only the triggers decide whether a second
+            // walk in a new context can change the result
+            walkByContext = isContextSensitive(triggers);
+            this.resolveByContext = resolveByContext;
+        }
+
+        /**
+         * Query whether any trigger may bind a desire.
+         */
+        public boolean isTriggerable(Desire desire) {
+            Boolean result = triggerable.get(desire);
+            if (result == null) {
+                result = false;
+                for (BindingFunction bf: triggers) {
+                    if (bf.mayBind(desire)) {
+                        result = true;
+                        break;
+                    }
+                }
+                triggerable.put(desire, result);
+            }
+            return result;
+        }
+
+        /**
+         * Query whether a node has an outgoing edge, or an edge below it, that a trigger may rewrite.
+         * Fixed edges cannot be rewritten themselves, but the nodes below them can.
+         */
+        public boolean isAffected(DAGNode<Component, Dependency> node) {
+            Boolean cached = affected.get(node);
+            if (cached != null) {
+                return cached;
+            }
+
+            // walk with an explicit stack, so deep graphs cannot overflow the call stack
+            Deque<Pair<DAGNode<Component, Dependency>, Iterator<DAGEdge<Component, Dependency>>>> stack =
+                    new ArrayDeque<Pair<DAGNode<Component, Dependency>, Iterator<DAGEdge<Component, Dependency>>>>();
+            stack.push(Pair.of(node, node.getOutgoingEdges().iterator()));
+            while (!stack.isEmpty()) {
+                Pair<DAGNode<Component, Dependency>, Iterator<DAGEdge<Component, Dependency>>> top = stack.peek();
+                if (!top.getRight().hasNext()) {
+                    affected.put(top.getLeft(), false);
+                    stack.pop();
+                    continue;
+                }
+                DAGEdge<Component, Dependency> edge = top.getRight().next();
+                Desire desire = edge.getLabel().getDesireChain().getInitialDesire();
+                DAGNode<Component, Dependency> tail = edge.getTail();
+                Boolean below = affected.get(tail);
+                if ((!edge.getLabel().isFixed() && isTriggerable(desire))
+                        || Boolean.TRUE.equals(below)) {
+                    // every node on the stack reaches this edge
+                    for (Pair<DAGNode<Component, Dependency>, Iterator<DAGEdge<Component, Dependency>>> frame: stack) {
+                        affected.put(frame.getLeft(), true);
+                    }
+                    return true;
+                } else if (below == null) {
+                    stack.push(Pair.of(tail, tail.getOutgoingEdges().iterator()));
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Mark a node as walked.
+         * @return {@code true} if the node had not yet been walked in this context.
+         */
+        public boolean visit(DAGNode<Component, Dependency> node, InjectionContext context) {
+            return visited.add(walkByContext ? Pair.of(node, context) : node);
+        }
+
+        @Nullable
+        public Pair<DAGNode<Component, Dependency>, Dependency> getResolution(Desire desire, InjectionContext context) {
+            return resolutions.get(resolveByContext ? Pair.of(desire, context) : desire);
+        }
+
+        public void putResolution(Desire desire, InjectionContext context,
+                                  Pair<DAGNode<Component, Dependency>, Dependency> result) {
+            resolutions.put(resolveByContext ? Pair.of(desire, context) : desire, result);
+        }
+    }
     
     /*
      * Deferred results tuple
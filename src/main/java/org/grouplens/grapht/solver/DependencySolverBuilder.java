@@ -25,6 +25,7 @@
 package org.grouplens.grapht.solver;
 
 import org.grouplens.grapht.CachePolicy;
+import org.grouplens.grapht.metrics.InjectorMetrics;
 import org.grouplens.grapht.util.Preconditions;
 
 import org.jetbrains.annotations.NotNull;
@@ -45,6 +46,7 @@ public class DependencySolverBuilder {
     private List<BindingFunction> triggerFunctions = new LinkedList<BindingFunction>();
     private CachePolicy defaultPolicy = CachePolicy.NO_PREFERENCE;
     private int maxDepth = 100;
+    private InjectorMetrics metrics = InjectorMetrics.disabled();
 
     /**
      * Get the current list of binding functions.
@@ -157,11 +159,32 @@ public class DependencySolverBuilder {
         return this;
     }
 
+    /**
+     * Get the metrics the solver will record.
+     * @return The solver's metrics.
+     * @since 0.11
+     */
+    public InjectorMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Set the metrics the solver will record.  The default is {@link InjectorMetrics#disabled()}.
+     * @param m The metrics to record.
+     * @return The builder (for chaining).
+     * @since 0.11
+     */
+    public DependencySolverBuilder setMetrics(@NotNull InjectorMetrics m) {
+        Preconditions.notNull("metrics", m);
+        metrics = m;
+        return this;
+    }
+
     /**
      * Build a dependency solver.
      * @return The dependency solver.
      */
     public DependencySolver build() {
-        return new DependencySolver(bindingFunctions, triggerFunctions, defaultPolicy, maxDepth);
+        return new DependencySolver(bindingFunctions, triggerFunctions, defaultPolicy, maxDepth, metrics);
     }
 }
@@ -25,9 +25,9 @@
 package org.grouplens.grapht.solver;
 
 import org.apache.commons.lang3.tuple.Pair;
+import org.grouplens.grapht.reflect.Desires;
 import org.grouplens.grapht.reflect.InjectionPoint;
 import org.grouplens.grapht.reflect.Satisfaction;
-import org.grouplens.grapht.reflect.internal.SimpleInjectionPoint;
 import org.grouplens.grapht.util.AbstractChain;
 
 import org.jetbrains.annotations.Nullable;
@@ -77,7 +77,7 @@ public class InjectionContext extends AbstractChain<Pair<Satisfaction,InjectionP
      * @return The injection context.
      */
     public static InjectionContext singleton(Satisfaction satisfaction) {
-        return singleton(satisfaction, new SimpleInjectionPoint(null, satisfaction.getErasedType(), true));
+        return singleton(satisfaction, Desires.createInjectionPoint(null, satisfaction.getErasedType(), true));
     }
 
     private InjectionContext(InjectionContext prior, Satisfaction satisfaction, InjectionPoint ip) {
@@ -0,0 +1,415 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.solver;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.SetMultimap;
+import net.jcip.annotations.Immutable;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable set multimap that shares structure with the maps it was derived from.  Keys are
+ * stored in a hash array mapped trie, so {@link #with(Object, ImmutableSet)} copies only the
+ * path to the changed key, and lookups by key never copy.  Whole-map views such as
+ * {@link #entries()} are served from a full copy, built on first use.
+ *
+ * @author <a href="http://grouplens.org">GroupLens Research</a>
+ * @since 0.11
+ */
+@Immutable
+final class PersistentSetMultimap<K,V> implements SetMultimap<K,V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final PersistentSetMultimap<Object,Object> EMPTY =
+            new PersistentSetMultimap<Object,Object>(null, 0);
+
+    @Nullable
+    private final Object root;
+    private final int size;
+    private transient volatile ImmutableSetMultimap<K,V> copy;
+
+    private PersistentSetMultimap(@Nullable Object root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K,V> PersistentSetMultimap<K,V> of() {
+        return (PersistentSetMultimap<K,V>) EMPTY;
+    }
+
+    /**
+     * Get a map with a key's values replaced.
+     * @param key The key.
+     * @param values The new values of {@code key}; if empty, the key is removed.
+     * @return A map with {@code key} mapped to {@code values}.  This map is unchanged.
+     */
+    public PersistentSetMultimap<K,V> with(K key, ImmutableSet<V> values) {
+        int hash = key.hashCode();
+        ImmutableSet<V> old = get(key);
+        if (old.equals(values)) {
+            return this;
+        }
+        Object newRoot;
+        if (values.isEmpty()) {
+            newRoot = remove(root, 0, hash, key);
+        } else {
+            newRoot = put(root, 0, new Entry(hash, key, values));
+        }
+        return new PersistentSetMultimap<K,V>(newRoot, size - old.size() + values.size());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ImmutableSet<V> get(@Nullable Object key) {
+        if (key == null) {
+            return ImmutableSet.of();
+        }
+        int hash = key.hashCode();
+        Object node = root;
+        int shift = 0;
+        while (node instanceof Branch) {
+            Branch b = (Branch) node;
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((b.bitmap & bit) == 0) {
+                return ImmutableSet.of();
+            }
+            node = b.children[Integer.bitCount(b.bitmap & (bit - 1))];
+            shift += BITS;
+        }
+        Entry e = find(node, hash, key);
+        return e == null ? ImmutableSet.<V>of() : (ImmutableSet<V>) e.values;
+    }
+
+    /**
+     * Visit each key and its values.
+     * @param action The action to invoke.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachKey(BiConsumer<? super K, ? super ImmutableSet<V>> action) {
+        visit(root, (BiConsumer<Object, ImmutableSet<?>>) (BiConsumer) action);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(@Nullable Object key) {
+        return !get(key).isEmpty();
+    }
+
+    @Override
+    public boolean containsEntry(@Nullable Object key, @Nullable Object value) {
+        return get(key).contains(value);
+    }
+
+    @Override
+    public boolean containsValue(@Nullable Object value) {
+        return copy().containsValue(value);
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return copy().keySet();
+    }
+
+    @Override
+    public Multiset<K> keys() {
+        return copy().keys();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return copy().values();
+    }
+
+    @Override
+    public Set<Map.Entry<K,V>> entries() {
+        return copy().entries();
+    }
+
+    @Override
+    public Map<K, Collection<V>> asMap() {
+        return copy().asMap();
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        return o == this || copy().equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return copy().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return copy().toString();
+    }
+
+    @Override
+    public boolean put(K key, V value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean remove(@Nullable Object key, @Nullable Object value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean putAll(K key, Iterable<? extends V> values) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean putAll(Multimap<? extends K, ? extends V> multimap) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Set<V> replaceValues(K key, Iterable<? extends V> values) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Set<V> removeAll(@Nullable Object key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    private ImmutableSetMultimap<K,V> copy() {
+        ImmutableSetMultimap<K,V> result = copy;
+        if (result == null) {
+            final ImmutableSetMultimap.Builder<K,V> bld = ImmutableSetMultimap.builder();
+            forEachKey(bld::putAll);
+            result = bld.build();
+            copy = result;
+        }
+        return result;
+    }
+
+    /**
+     * A key and its values.
+     */
+    private static final class Entry {
+        final int hash;
+        final Object key;
+        final ImmutableSet<?> values;
+
+        Entry(int h, Object k, ImmutableSet<?> vs) {
+            hash = h;
+            key = k;
+            values = vs;
+        }
+    }
+
+    /**
+     * Entries whose keys have the same hash code.
+     */
+    private static final class Collision {
+        final int hash;
+        final Entry[] entries;
+
+        Collision(int h, Entry[] es) {
+            hash = h;
+            entries = es;
+        }
+    }
+
+    /**
+     * Interior trie node; the bitmap records which of the 32 child slots are occupied.
+     */
+    private static final class Branch {
+        final int bitmap;
+        final Object[] children;
+
+        Branch(int bm, Object[] cs) {
+            bitmap = bm;
+            children = cs;
+        }
+    }
+
+    private static int hashOf(Object leaf) {
+        return leaf instanceof Entry ? ((Entry) leaf).hash : ((Collision) leaf).hash;
+    }
+
+    @Nullable
+    private static Entry find(@Nullable Object leaf, int hash, Object key) {
+        if (leaf instanceof Entry) {
+            Entry e = (Entry) leaf;
+            return e.hash == hash && e.key.equals(key) ? e : null;
+        } else if (leaf instanceof Collision && ((Collision) leaf).hash == hash) {
+            for (Entry e: ((Collision) leaf).entries) {
+                if (e.key.equals(key)) {
+                    return e;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Object put(@Nullable Object node, int shift, Entry entry) {
+        if (node == null) {
+            return entry;
+        } else if (node instanceof Branch) {
+            Branch b = (Branch) node;
+            int bit = 1 << ((entry.hash >>> shift) & MASK);
+            int pos = Integer.bitCount(b.bitmap & (bit - 1));
+            Object[] children;
+            if ((b.bitmap & bit) != 0) {
+                children = b.children.clone();
+                children[pos] = put(children[pos], shift + BITS, entry);
+            } else {
+                children = new Object[b.children.length + 1];
+                System.arraycopy(b.children, 0, children, 0, pos);
+                children[pos] = entry;
+                System.arraycopy(b.children, pos, children, pos + 1, b.children.length - pos);
+            }
+            return new Branch(b.bitmap | bit, children);
+        } else if (hashOf(node) != entry.hash) {
+            return split(node, entry, shift);
+        } else if (node instanceof Entry) {
+            Entry e = (Entry) node;
+            return e.key.equals(entry.key) ? entry : new Collision(entry.hash, new Entry[]{e, entry});
+        } else {
+            Entry[] entries = ((Collision) node).entries;
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i].key.equals(entry.key)) {
+                    Entry[] copy = entries.clone();
+                    copy[i] = entry;
+                    return new Collision(entry.hash, copy);
+                }
+            }
+            Entry[] copy = Arrays.copyOf(entries, entries.length + 1);
+            copy[entries.length] = entry;
+            return new Collision(entry.hash, copy);
+        }
+    }
+
+    /**
+     * Build the branches separating two leaves with different hashes.
+     */
+    private static Branch split(Object a, Object b, int shift) {
+        int ia = (hashOf(a) >>> shift) & MASK;
+        int ib = (hashOf(b) >>> shift) & MASK;
+        if (ia == ib) {
+            return new Branch(1 << ia, new Object[]{split(a, b, shift + BITS)});
+        } else if (ia < ib) {
+            return new Branch((1 << ia) | (1 << ib), new Object[]{a, b});
+        } else {
+            return new Branch((1 << ia) | (1 << ib), new Object[]{b, a});
+        }
+    }
+
+    @Nullable
+    private static Object remove(@Nullable Object node, int shift, int hash, Object key) {
+        if (node == null) {
+            return null;
+        } else if (node instanceof Branch) {
+            Branch b = (Branch) node;
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((b.bitmap & bit) == 0) {
+                return node;
+            }
+            int pos = Integer.bitCount(b.bitmap & (bit - 1));
+            Object child = remove(b.children[pos], shift + BITS, hash, key);
+            if (child == b.children[pos]) {
+                return node;
+            } else if (child != null) {
+                Object[] children = b.children.clone();
+                children[pos] = child;
+                return collapse(new Branch(b.bitmap, children));
+            } else if (b.children.length == 1) {
+                return null;
+            } else {
+                Object[] children = new Object[b.children.length - 1];
+                System.arraycopy(b.children, 0, children, 0, pos);
+                System.arraycopy(b.children, pos + 1, children, pos, children.length - pos);
+                return collapse(new Branch(b.bitmap & ~bit, children));
+            }
+        } else if (find(node, hash, key) == null) {
+            return node;
+        } else if (node instanceof Entry) {
+            return null;
+        } else {
+            Entry[] entries = ((Collision) node).entries;
+            Entry[] rest = new Entry[entries.length - 1];
+            int j = 0;
+            for (Entry e: entries) {
+                if (!e.key.equals(key)) {
+                    rest[j++] = e;
+                }
+            }
+            return rest.length == 1 ? rest[0] : new Collision(hash, rest);
+        }
+    }
+
+    /**
+     * Replace a branch holding a single leaf with the leaf.
+     */
+    private static Object collapse(Branch b) {
+        if (b.children.length == 1 && !(b.children[0] instanceof Branch)) {
+            return b.children[0];
+        }
+        return b;
+    }
+
+    private static void visit(@Nullable Object node, BiConsumer<Object, ImmutableSet<?>> action) {
+        if (node instanceof Branch) {
+            for (Object child: ((Branch) node).children) {
+                visit(child, action);
+            }
+        } else if (node instanceof Collision) {
+            for (Entry e: ((Collision) node).entries) {
+                action.accept(e.key, e.values);
+            }
+        } else if (node != null) {
+            Entry e = (Entry) node;
+            action.accept(e.key, e.values);
+        }
+    }
+}
@@ -54,6 +54,11 @@ public class ProviderBindingFunction implements BindingFunction {
     public ProviderBindingFunction() {
     }
     
+    @Override
+    public boolean isContextSensitive() {
+        return false;
+    }
+
     @Override
     public BindingResult bind(InjectionContext context, DesireChain desires) throws ResolutionException {
         Desire desire = desires.getCurrentDesire();
@@ -139,7 +144,7 @@ public class ProviderBindingFunction implements BindingFunction {
 
         @Override
         public Instantiator makeInstantiator(Map<Desire,Instantiator> dependencies,
-                                             LifecycleManager lm) {
+                                             ComponentRegistry registry) {
             Instantiator instantiator = dependencies.get(providedDesire);
             
             // Inject an instance of a provider wrapping this instantiator.
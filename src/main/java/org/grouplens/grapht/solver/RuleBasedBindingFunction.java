@@ -25,12 +25,16 @@
 package org.grouplens.grapht.solver;
 
 import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Multimap;
 import org.apache.commons.lang3.tuple.Pair;
 import org.grouplens.grapht.ResolutionException;
 import org.grouplens.grapht.context.ContextMatch;
 import org.grouplens.grapht.context.ContextMatcher;
+import org.grouplens.grapht.context.ContextPattern;
+import org.grouplens.grapht.metrics.InjectorMetrics;
+import org.grouplens.grapht.reflect.Desire;
 import org.grouplens.grapht.reflect.QualifierMatcher;
 import org.grouplens.grapht.util.Preconditions;
 import org.slf4j.Logger;
@@ -68,11 +72,36 @@ public class RuleBasedBindingFunction implements BindingFunction {
     private static final Logger logger = LoggerFactory.getLogger(RuleBasedBindingFunction.class);
     
     private final ImmutableListMultimap<ContextMatcher, BindRule> rules;
+    private final boolean contextSensitive;
+    private final ImmutableSetMultimap<Class<?>, BindRule> rulesByType;
+    private final boolean hasUntypedRules;
     
     public RuleBasedBindingFunction(Multimap<ContextMatcher, BindRule> rules) {
         Preconditions.notNull("rules", rules);
         
         this.rules = ImmutableListMultimap.copyOf(rules);
+        ContextPattern any = ContextPattern.any();
+        boolean sensitive = false;
+        for (ContextMatcher matcher: this.rules.keySet()) {
+            if (!matcher.equals(any)) {
+                sensitive = true;
+                break;
+            }
+        }
+        contextSensitive = sensitive;
+
+        ImmutableSetMultimap.Builder<Class<?>, BindRule> byType = ImmutableSetMultimap.builder();
+        boolean untyped = false;
+        for (BindRule rule: this.rules.values()) {
+            Class<?> type = rule.getDependencyType();
+            if (type == null) {
+                untyped = true;
+            } else {
+                byType.put(type, rule);
+            }
+        }
+        rulesByType = byType.build();
+        hasUntypedRules = untyped;
     }
     
     /**
@@ -83,8 +112,40 @@ public class RuleBasedBindingFunction implements BindingFunction {
         return rules;
     }
     
+    /**
+     * {@inheritDoc}
+     * <p>This function is context-sensitive unless all of its rules are in the root context.
+     */
+    @Override
+    public boolean isContextSensitive() {
+        return contextSensitive;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>This checks the desire against the rules for its type, ignoring their contexts.
+     */
+    @Override
+    public boolean mayBind(Desire desire) {
+        if (hasUntypedRules) {
+            return true;
+        }
+        for (BindRule rule: rulesByType.get(desire.getDesiredType())) {
+            if (rule.matches(desire)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public BindingResult bind(InjectionContext context, DesireChain desire) throws ResolutionException {
+        return bind(context, desire, InjectorMetrics.disabled());
+    }
+
+    @Override
+    public BindingResult bind(InjectionContext context, DesireChain desire,
+                              InjectorMetrics metrics) throws ResolutionException {
         // FIXME Build a better way to remember the applied rules
         Set<BindRule> appliedRules;
         synchronized (bindRuleMemory) {
@@ -96,6 +157,7 @@ public class RuleBasedBindingFunction implements BindingFunction {
         }
 
         // collect all bind rules that apply to this desire
+        metrics.recordContextMatches(rules.keySet().size());
         List<Pair<ContextMatch, BindRule>> validRules = new ArrayList<Pair<ContextMatch, BindRule>>();
         for (ContextMatcher matcher: rules.keySet()) {
             ContextMatch match = matcher.matches(context);
@@ -0,0 +1,292 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.util;
+
+import com.google.common.base.Charsets;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.io.*;
+import java.lang.reflect.*;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Class checksums, used by {@link ClassProxy} to check that a class has not changed its
+ * definition since a graph referencing it was serialized.
+ *
+ * <p>Checksums are cached per class, and the member signatures of each class are cached
+ * separately so that classes sharing a superclass chain do not re-inspect it.  Checksums can
+ * also be computed at build time with {@link #main(String[])} and stored in
+ * {@value #CHECKSUM_RESOURCE}; setting the system property {@value #PRECOMPUTED_PROPERTY} to
+ * {@code true} makes Grapht use the stored values instead of inspecting the classes.</p>
+ *
+ * @since 0.11
+ * @author <a href="http://grouplens.org">GroupLens Research</a>
+ */
+public final class ClassChecksums {
+    private static final Logger logger = LoggerFactory.getLogger(ClassChecksums.class);
+
+    /**
+     * The resource holding precomputed checksums.  It is a properties file mapping class names
+     * to checksums.
+     */
+    public static final String CHECKSUM_RESOURCE = "META-INF/grapht/checksums.properties";
+    /**
+     * The system property enabling the use of precomputed checksums.
+     */
+    public static final String PRECOMPUTED_PROPERTY = "grapht.checksums.precomputed";
+
+    private static final ClassValue<Long> checksums = new ClassValue<Long>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            return computeChecksum(type);
+        }
+    };
+
+    private static final ClassValue<List<String>> memberSignatures = new ClassValue<List<String>>() {
+        @Override
+        protected List<String> computeValue(Class<?> type) {
+            return findMemberSignatures(type);
+        }
+    };
+
+    private static final LoadingCache<ClassLoader, Map<String, Long>> precomputed =
+            CacheBuilder.newBuilder()
+                        .weakKeys()
+                        .build(new CacheLoader<ClassLoader, Map<String, Long>>() {
+                            @Override
+                            public Map<String, Long> load(ClassLoader loader) {
+                                return loadPrecomputed(loader);
+                            }
+                        });
+
+    private ClassChecksums() {}
+
+    /**
+     * Get the checksum of a class.  If precomputed checksums are enabled and the class's
+     * loader has a checksum for it, that checksum is used.
+     *
+     * @param type The class.
+     * @return The class's checksum.
+     */
+    public static long getChecksum(Class<?> type) {
+        if (Boolean.getBoolean(PRECOMPUTED_PROPERTY)) {
+            ClassLoader loader = type.getClassLoader();
+            if (loader != null) {
+                Long check = precomputed.getUnchecked(loader).get(type.getName());
+                if (check != null) {
+                    return check;
+                }
+            }
+        }
+        return checksums.get(type);
+    }
+
+    /**
+     * Compute a checksum for a class. These checksums are used to see if a class has changed
+     * its definition since being serialized.
+     * <p>
+     * The checksum used here is not cryptographically strong. It is intended only as a sanity
+     * check to detect incompatible serialization, not to robustly prevent tampering. The
+     * checksum algorithm currently is to compute an MD5 checksum over class member signatures
+     * and XOR the lower and upper halves of the checksum.
+     * </p>
+     *
+     * @param type The class to checksum.
+     * @return The checksum.
+     */
+    @SuppressWarnings("deprecation")
+    private static long computeChecksum(Class<?> type) {
+        // we compute a big hash of all the members of the class, and its superclasses,
+        // starting from the root of the hierarchy.
+        List<Class<?>> chain = Lists.newArrayList();
+        for (Class<?> cls = type; cls != null; cls = cls.getSuperclass()) {
+            chain.add(cls);
+        }
+
+        Hasher hash = Hashing.md5().newHasher();
+        for (Class<?> cls: Lists.reverse(chain)) {
+            for (String mem: memberSignatures.get(cls)) {
+                hash.putString(mem, Charsets.UTF_8);
+            }
+        }
+
+        HashCode code = hash.hash();
+        ByteBuffer buf = ByteBuffer.wrap(code.asBytes());
+        long l1 = buf.getLong();
+        long l2 = buf.getLong();
+        return l1 ^ l2;
+    }
+
+    /**
+     * Get the sorted signatures of the injection-sensitive members declared by a class.
+     *
+     * @param type The class.
+     * @return The member signatures.
+     */
+    private static List<String> findMemberSignatures(Class<?> type) {
+        List<String> members = new ArrayList<String>();
+        for (Constructor<?> c: type.getDeclaredConstructors()) {
+            if (isInjectionSensitive(c)) {
+                members.add(String.format("%s(%s)", c.getName(),
+                                          StringUtils.join(c.getParameterTypes(), ", ")));
+            }
+        }
+        for (Method m: type.getDeclaredMethods()) {
+            if (isInjectionSensitive(m)) {
+                members.add(String.format("%s(%s): %s", m.getName(),
+                                          StringUtils.join(m.getParameterTypes(), ", "),
+                                          m.getReturnType()));
+            }
+        }
+        for (Field f: type.getDeclaredFields()) {
+            if (isInjectionSensitive(f)) {
+                members.add(f.getName() + ":" + f.getType().getName());
+            }
+        }
+
+        Collections.sort(members);
+        return ImmutableList.copyOf(members);
+    }
+
+    /**
+     * Check whether a member is injection-sensitive and should be checked for validity in
+     * deserialization.
+     *
+     * @param m The member.
+     * @param <M> The type of member (done so we can check multiple types).
+     * @return {@code true} if the member should be checksummed, {@code false} to ignore it.
+     */
+    private static <M extends Member & AnnotatedElement>boolean isInjectionSensitive(M m) {
+        // static methods are not sensitive
+        if (Modifier.isStatic(m.getModifiers())) {
+            return false;
+        }
+
+        // private members w/o @Inject are not sensitive
+        if (Modifier.isPrivate(m.getModifiers()) && m.getAnnotation(Inject.class) == null) {
+            return false;
+        }
+
+        // public, protected, or @Inject - it's sensitive (be conservative)
+        return true;
+    }
+
+    private static Map<String, Long> loadPrecomputed(ClassLoader loader) {
+        ImmutableMap.Builder<String, Long> result = ImmutableMap.builder();
+        Set<String> seen = new HashSet<String>();
+        try {
+            Enumeration<URL> urls = loader.getResources(CHECKSUM_RESOURCE);
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                logger.debug("loading class checksums from {}", url);
+                Properties props = new Properties();
+                InputStream istr = url.openStream();
+                try {
+                    props.load(istr);
+                } finally {
+                    istr.close();
+                }
+                for (String name: props.stringPropertyNames()) {
+                    // the first resource on the class path wins
+                    if (seen.add(name)) {
+                        result.put(name, Long.parseLong(props.getProperty(name)));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("error reading class checksums, computing them instead", e);
+            return Collections.emptyMap();
+        } catch (NumberFormatException e) {
+            logger.warn("invalid class checksum, computing them instead", e);
+            return Collections.emptyMap();
+        }
+        return result.build();
+    }
+
+    /**
+     * Write checksums for classes in the format of {@value #CHECKSUM_RESOURCE}.
+     *
+     * @param classes The classes to checksum.
+     * @param out The output stream.
+     * @throws IOException if there is an error writing the checksums.
+     */
+    public static void writeChecksums(Iterable<? extends Class<?>> classes,
+                                      OutputStream out) throws IOException {
+        // sorted so that the output is reproducible
+        SortedMap<String, String> sorted = new TreeMap<String, String>();
+        for (Class<?> cls: classes) {
+            sorted.put(cls.getName(), Long.toString(checksums.get(cls)));
+        }
+        Writer writer = new OutputStreamWriter(out, Charsets.ISO_8859_1);
+        for (Map.Entry<String, String> e: sorted.entrySet()) {
+            writer.write(e.getKey());
+            writer.write('=');
+            writer.write(e.getValue());
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    /**
+     * Precompute class checksums at build time.  The first argument is the file to write, and
+     * the remaining arguments are the names of the classes to checksum; the classes are loaded
+     * from the context class loader.  The output file should be packaged as
+     * {@value #CHECKSUM_RESOURCE}.
+     *
+     * @param args The command line arguments.
+     * @throws Exception if there is an error loading classes or writing the checksums.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("usage: ClassChecksums OUTPUT CLASS...");
+            System.exit(2);
+        }
+        ClassLoader loader = ClassLoaders.inferDefault(ClassChecksums.class);
+        List<Class<?>> classes = Lists.newArrayList();
+        for (String name: Arrays.asList(args).subList(1, args.length)) {
+            classes.add(Class.forName(name, false, loader));
+        }
+        OutputStream out = new FileOutputStream(args[0]);
+        try {
+            writeChecksums(classes, out);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -24,26 +24,17 @@
  */
 package org.grouplens.grapht.util;
 
-import com.google.common.base.Charsets;
-import com.google.common.hash.HashCode;
-import com.google.common.hash.HashFunction;
-import com.google.common.hash.Hasher;
-import com.google.common.hash.Hashing;
 import net.jcip.annotations.Immutable;
 import org.apache.commons.lang3.ClassUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.inject.Inject;
 import java.io.IOException;
 import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.lang.ref.WeakReference;
-import java.lang.reflect.*;
-import java.nio.ByteBuffer;
-import java.util.*;
 
 /**
  * A serialization proxy for class instances.  This serializable class encapsulates a simple
@@ -53,6 +44,11 @@ import java.util.*;
  *     {@link Class#getName()}.  The name encodes array information, so this is adequate
  *     to fully reconstruct the class.
  * </p>
+ * <p>
+ *     Proxies also carry a {@linkplain ClassChecksums checksum} of the class, to detect
+ *     classes that have changed since serialization.  The checksum of a proxy obtained with
+ *     {@link #of(Class)} is only computed when the proxy is serialized.
+ * </p>
  *
  * @author <a href="http://grouplens.org">GroupLens Research</a>
  */
@@ -62,22 +58,41 @@ public final class ClassProxy implements Serializable {
     private static final Logger logger = LoggerFactory.getLogger(ClassProxy.class);
 
     private final String className;
-    private final long checksum;
+    // not final so it can be computed lazily; only written before it is known
+    private volatile long checksum;
+    private transient volatile boolean checksumKnown;
     @Nullable
     private transient volatile WeakReference<Class<?>> theClass;
+    /**
+     * The loader to resolve the class with.  Proxies obtained with {@link #of(Class)} are cached
+     * with their class and must not hold a loader, so they infer one if the class is gone.
+     */
+    @Nullable
     private transient ClassLoader classLoader;
 
-    private ClassProxy(String name, long check) {
+    private ClassProxy(String name) {
         className = name;
-        checksum = check;
-        classLoader = ClassLoaders.inferDefault(ClassProxy.class);
     }
 
     private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
         stream.defaultReadObject();
+        checksumKnown = true;
         classLoader = ClassLoaders.inferDefault(ClassProxy.class);
     }
 
+    private void writeObject(ObjectOutputStream stream) throws IOException {
+        if (!checksumKnown) {
+            try {
+                Class<?> cls = resolveUnchecked();
+                checksum = ClassChecksums.getChecksum(cls);
+                checksumKnown = true;
+            } catch (ClassNotFoundException e) {
+                throw new IOException("cannot checksum " + className, e);
+            }
+        }
+        stream.defaultWriteObject();
+    }
+
     /**
      * Get the class name. This name does not include any array information.
      * @return The class name.
@@ -117,127 +132,60 @@ public final class ClassProxy implements Serializable {
         WeakReference<Class<?>> ref = theClass;
         Class<?> cls = ref == null ? null : ref.get();
         if (cls == null) {
-            if(className.equals("void")) {
-                // special case
-                cls = Void.TYPE;
-            } else {
-                cls = ClassUtils.getClass(classLoader, className);
-            }
-            long check = checksumClass(cls);
-            if (!isSerializationPermissive() && checksum != check) {
-                throw new ClassNotFoundException("checksum mismatch for " + cls.getName());
-            } else {
-                if (checksum != check) {
+            cls = resolveUnchecked();
+            if (checksumKnown) {
+                long check = ClassChecksums.getChecksum(cls);
+                if (!isSerializationPermissive() && checksum != check) {
+                    throw new ClassNotFoundException("checksum mismatch for " + cls.getName());
+                } else if (checksum != check) {
                     logger.warn("checksum mismatch for {}", cls);
                 }
-                theClass = new WeakReference<Class<?>>(cls);
             }
+            theClass = new WeakReference<Class<?>>(cls);
         }
         return cls;
     }
 
-    private static final Map<Class<?>, ClassProxy> proxyCache = new WeakHashMap<Class<?>, ClassProxy>();
-
     /**
-     * Construct a class proxy for a class.
-     *
-     * @param cls The class.
-     * @return The class proxy.
-     */
-    public static synchronized ClassProxy of(Class<?> cls) {
-        ClassProxy proxy = proxyCache.get(cls);
-        if (proxy == null) {
-            proxy = new ClassProxy(cls.getName(), checksumClass(cls));
-            proxy.theClass = new WeakReference<Class<?>>(cls);
-            proxyCache.put(cls, proxy);
-        }
-        return proxy;
-    }
-
-    public static boolean isSerializationPermissive() {
-        return Boolean.getBoolean("grapht.deserialization.permissive");
-    }
-
-    /**
-     * Compute a checksum for a class. These checksums are used to see if a class has changed
-     * its definition since being serialized.
-     * <p>
-     * The checksum used here is not cryptographically strong. It is intended only as a sanity
-     * check to detect incompatible serialization, not to robustly prevent tampering. The
-     * checksum algorithm currently is to compute an MD5 checksum over class member signatures
-     * and XOR the lower and upper halves of the checksum.
-     * </p>
-     *
-     * @param type The class to checksum.
-     * @return The checksum.
+     * Look up the class by name, without checking its checksum.
      */
-    @SuppressWarnings("deprecation")
-    private static long checksumClass(Class<?> type) {
-        HashFunction hf = Hashing.md5();
-        Hasher hash = hf.newHasher();
-        checksumClass(type, hash);
-
-        HashCode code = hash.hash();
-        ByteBuffer buf = ByteBuffer.wrap(code.asBytes());
-        long l1 = buf.getLong();
-        long l2 = buf.getLong();
-        return l1 ^ l2;
-    }
-
-    private static void checksumClass(Class<?> type, Hasher hash) {
-        // we compute a big hash of all the members of the class, and its superclasses.
-
-        List<String> members = new ArrayList<String>();
-        for (Constructor<?> c: type.getDeclaredConstructors()) {
-            if (isInjectionSensitive(c)) {
-                members.add(String.format("%s(%s)", c.getName(),
-                                          StringUtils.join(c.getParameterTypes(), ", ")));
-            }
-        }
-        for (Method m: type.getDeclaredMethods()) {
-            if (isInjectionSensitive(m)) {
-                members.add(String.format("%s(%s): %s", m.getName(),
-                                          StringUtils.join(m.getParameterTypes(), ", "),
-                                          m.getReturnType()));
-            }
-        }
-        for (Field f: type.getDeclaredFields()) {
-            if (isInjectionSensitive(f)) {
-                members.add(f.getName() + ":" + f.getType().getName());
+    private Class<?> resolveUnchecked() throws ClassNotFoundException {
+        WeakReference<Class<?>> ref = theClass;
+        Class<?> cls = ref == null ? null : ref.get();
+        if (cls != null) {
+            return cls;
+        } else if (className.equals("void")) {
+            // special case
+            return Void.TYPE;
+        } else {
+            ClassLoader loader = classLoader;
+            if (loader == null) {
+                loader = ClassLoaders.inferDefault(ClassProxy.class);
             }
+            return ClassUtils.getClass(loader, className);
         }
+    }
 
-        Collections.sort(members);
-
-        Class<?> sup = type.getSuperclass();
-        if (sup != null) {
-            checksumClass(sup, hash);
-        }
-        for (String mem: members) {
-            hash.putString(mem, Charsets.UTF_8);
+    private static final ClassValue<ClassProxy> proxyCache = new ClassValue<ClassProxy>() {
+        @Override
+        protected ClassProxy computeValue(Class<?> cls) {
+            ClassProxy proxy = new ClassProxy(cls.getName());
+            proxy.theClass = new WeakReference<Class<?>>(cls);
+            return proxy;
         }
-    }
+    };
 
     /**
-     * Check whether a member is injection-sensitive and should be checked for validity in
-     * deserialization.
+     * Construct a class proxy for a class.
      *
-     * @param m The member.
-     * @param <M> The type of member (done so we can check multiple types).
-     * @return {@code true} if the member should be checksummed, {@code false} to ignore it.
+     * @param cls The class.
+     * @return The class proxy.
      */
-    private static <M extends Member & AnnotatedElement>boolean isInjectionSensitive(M m) {
-        // static methods are not sensitive
-        if (Modifier.isStatic(m.getModifiers())) {
-            return false;
-        }
-
-        // private members w/o @Inject are not sensitive
-        if (Modifier.isPrivate(m.getModifiers()) && m.getAnnotation(Inject.class) == null) {
-            return false;
-        }
+    public static ClassProxy of(Class<?> cls) {
+        return proxyCache.get(cls);
+    }
 
-        // public, protected, or @Inject - it's sensitive (be conservative)
-        return true;
+    public static boolean isSerializationPermissive() {
+        return Boolean.getBoolean("grapht.deserialization.permissive");
     }
 }
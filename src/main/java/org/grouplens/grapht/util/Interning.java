@@ -0,0 +1,60 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.util;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Canonicalizes immutable value objects, such as desires, injection points, and components.
+ * Large graphs create many equal copies of these objects; interning them lets equal objects
+ * share one instance, so equality checks between them can stop at the identity test.
+ *
+ * <p>The interner holds its canonical instances weakly, so interning does not keep otherwise
+ * unreachable objects (or their classes) alive.  Only immutable objects with value-based
+ * {@link Object#equals(Object) equals} and {@link Object#hashCode() hashCode} may be interned.</p>
+ *
+ * @since 0.11
+ * @author <a href="http://grouplens.org">GroupLens Research</a>
+ */
+public final class Interning {
+    private static final Interner<Object> INTERNER = Interners.newWeakInterner();
+
+    private Interning() {}
+
+    /**
+     * Get the canonical instance of a value.
+     *
+     * @param value The value to intern.
+     * @param <T> The value's type.
+     * @return The canonical instance equal to {@code value} (which is {@code value} itself if no
+     *         equal instance is currently interned).
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T intern(T value) {
+        Preconditions.notNull("value", value);
+        return (T) INTERNER.intern(value);
+    }
+}
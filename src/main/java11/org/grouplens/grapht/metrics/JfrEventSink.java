@@ -0,0 +1,140 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Event sink emitting Java Flight Recorder events.  This class refers to the JFR API, so it is only
+ * loaded (reflectively, by {@link InjectorEvents}) when that API is present.  It is only built into
+ * the Java 11 part of the multi-release JAR, so Java 8 runtimes never see it.
+ *
+ * @author <a href="http://grouplens.org">GroupLens Research</a>
+ */
+class JfrEventSink implements InjectorEvents.EventSink {
+    /**
+     * Nesting depth of constructions and provider invocations on each thread.
+     */
+    private final ThreadLocal<int[]> constructionDepth = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public Object begin(InjectorEvents.Kind kind) {
+        InjectorEvent event;
+        switch (kind) {
+        case RESOLVE:
+            event = new ResolveEvent();
+            break;
+        case RESOLVE_FULLY:
+            event = new ResolveFullyEvent();
+            break;
+        case MERGE:
+            event = new MergeEvent();
+            break;
+        case INSTANTIATE:
+            event = new InstantiateEvent();
+            break;
+        case PROVIDER:
+            event = new ProviderEvent();
+            break;
+        default:
+            throw new IllegalArgumentException("unknown event kind " + kind);
+        }
+        if (!event.isEnabled()) {
+            return null;
+        }
+        if (kind == InjectorEvents.Kind.INSTANTIATE || kind == InjectorEvents.Kind.PROVIDER) {
+            event.nested = true;
+            event.depth = constructionDepth.get()[0]++;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void end(Object token, Object subject, int depth) {
+        InjectorEvent event = (InjectorEvent) token;
+        event.end();
+        if (event.nested) {
+            constructionDepth.get()[0]--;
+        } else {
+            event.depth = depth;
+        }
+        if (event.shouldCommit()) {
+            event.subject = String.valueOf(subject);
+            event.commit();
+        }
+    }
+
+    @Category("Grapht")
+    @StackTrace(false)
+    abstract static class InjectorEvent extends Event {
+        @Label("Subject")
+        @Description("The desire or type being processed")
+        String subject;
+
+        @Label("Depth")
+        int depth;
+
+        /**
+         * Whether this event tracks construction nesting; transient fields are not recorded.
+         */
+        transient boolean nested;
+    }
+
+    @Name("org.grouplens.grapht.Resolve")
+    @Label("Resolve Desire")
+    @Description("Top-level resolution of a desire into the dependency graph")
+    static class ResolveEvent extends InjectorEvent {
+    }
+
+    @Name("org.grouplens.grapht.ResolveFully")
+    @Label("Resolve Dependency")
+    @Description("Resolution of a desire and its dependencies; depth is the context depth")
+    static class ResolveFullyEvent extends InjectorEvent {
+    }
+
+    @Name("org.grouplens.grapht.Merge")
+    @Label("Merge Graph")
+    @Description("Merging a graph into a merge pool; depth is the number of nodes merged")
+    static class MergeEvent extends InjectorEvent {
+    }
+
+    @Name("org.grouplens.grapht.Instantiate")
+    @Label("Instantiate Component")
+    @Description("Construction of a component; depth is the number of enclosing constructions")
+    static class InstantiateEvent extends InjectorEvent {
+    }
+
+    @Name("org.grouplens.grapht.ProviderInvocation")
+    @Label("Invoke Provider")
+    @Description("Invocation of a provider; depth is the number of enclosing constructions")
+    static class ProviderEvent extends InjectorEvent {
+    }
+}
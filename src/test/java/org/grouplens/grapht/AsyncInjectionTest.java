@@ -0,0 +1,125 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht;
+
+import org.grouplens.grapht.reflect.internal.types.*;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+public class AsyncInjectionTest {
+    @Test
+    public void testAsyncInstanceMatchesSync() throws Exception {
+        InjectorBuilder b = InjectorBuilder.create();
+        b.bind(InterfaceA.class).to(TypeA.class);
+        b.bind(InterfaceB.class).to(TypeB.class);
+        Injector i = b.build();
+
+        CompletableFuture<TypeC> future = i.getInstanceAsync(TypeC.class);
+        TypeC c = future.get();
+        assertThat(c, notNullValue());
+        assertThat(c.getInterfaceA(), instanceOf(TypeA.class));
+        assertThat(c.getInterfaceB(), instanceOf(TypeB.class));
+        assertThat(i.getInstance(TypeC.class), sameInstance(c));
+    }
+
+    @Test
+    public void testDependenciesBuiltOnExecutor() throws Exception {
+        InjectorBuilder b = InjectorBuilder.create();
+        b.bind(InterfaceA.class).to(TypeA.class);
+        b.bind(InterfaceB.class).to(TypeB.class);
+        Injector i = b.build();
+
+        CountingExecutor exec = new CountingExecutor();
+        TypeC c = i.getInstanceAsync(null, TypeC.class, exec).get();
+        assertThat(c, notNullValue());
+        // TypeC and at least one of its memoized dependencies
+        assertThat(exec.count.get(), greaterThan(1));
+    }
+
+    @Test
+    public void testAsyncProvider() throws Exception {
+        Injector i = InjectorBuilder.create().build();
+        AsyncProvider<Failing.Dep> prov = i.getAsyncProvider(null, Failing.Dep.class, Runnable::run);
+        Failing.Dep d = prov.getAsync().get();
+        assertThat(d, notNullValue());
+        assertThat(prov.getAsync().get(), sameInstance(d));
+    }
+
+    @Test
+    public void testConstructionFailure() throws Exception {
+        Injector i = InjectorBuilder.create().build();
+        CompletableFuture<Failing> future = i.getInstanceAsync(null, Failing.class, Runnable::run);
+        try {
+            future.get();
+            fail("construction should fail");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(ConstructionException.class));
+        }
+    }
+
+    @Test
+    public void testResolutionFailure() throws Exception {
+        Injector i = InjectorBuilder.create().build();
+        CompletableFuture<Unbound> future = i.getInstanceAsync(null, Unbound.class, Runnable::run);
+        try {
+            future.get();
+            fail("resolution should fail");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(ResolutionException.class));
+        }
+    }
+
+    private static class CountingExecutor implements Executor {
+        final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public void execute(Runnable command) {
+            count.incrementAndGet();
+            new Thread(command).start();
+        }
+    }
+
+    public interface Unbound {}
+
+    public static class Failing {
+        @Inject
+        public Failing(Dep dep) {
+            throw new IllegalStateException("cannot build");
+        }
+
+        public static class Dep {
+            @Inject
+            public Dep() {}
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht;
+
+import org.junit.Test;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+public class ChildInjectorTest {
+    @Test
+    public void testChildOverridesBinding() throws Exception {
+        InjectorBuilder b = InjectorBuilder.create();
+        b.bind(Store.class).to(MemoryStore.class);
+        Injector parent = b.build();
+        Service ps = parent.getInstance(Service.class);
+        assertThat(ps.store, instanceOf(MemoryStore.class));
+
+        Injector child = parent.createChild(ctx -> ctx.bind(Store.class).to(DiskStore.class));
+        Service cs = child.getInstance(Service.class);
+        assertThat(cs, not(sameInstance(ps)));
+        assertThat(cs.store, instanceOf(DiskStore.class));
+        // the unaffected singleton is shared with the parent
+        assertThat(cs.clock, sameInstance(ps.clock));
+        assertThat(child.getInstance(Clock.class), sameInstance(ps.clock));
+        // and the parent is untouched
+        assertThat(parent.getInstance(Service.class), sameInstance(ps));
+    }
+
+    @Test
+    public void testChildWithoutChangesSharesInstances() throws Exception {
+        Injector parent = InjectorBuilder.create()
+                                         .applyModule(ctx -> ctx.bind(Store.class).to(MemoryStore.class))
+                                         .build();
+        Service ps = parent.getInstance(Service.class);
+        Injector child = parent.createChild();
+        assertThat(child.getInstance(Service.class), sameInstance(ps));
+    }
+
+    @Test
+    public void testChildResolvesNewDesires() throws Exception {
+        Injector parent = InjectorBuilder.create().build();
+        Clock clock = parent.getInstance(Clock.class);
+        Injector child = parent.createChild(ctx -> ctx.bind(Store.class).to(DiskStore.class));
+        Service cs = child.getInstance(Service.class);
+        assertThat(cs.store, instanceOf(DiskStore.class));
+        assertThat(cs.clock, sameInstance(clock));
+    }
+
+    @Test
+    public void testCloseChildLeavesParent() throws Exception {
+        Injector parent = InjectorBuilder.create()
+                                         .applyModule(ctx -> ctx.bind(Store.class).to(MemoryStore.class))
+                                         .build();
+        Service ps = parent.getInstance(Service.class);
+        Injector child = parent.createChild(ctx -> ctx.bind(Store.class).to(DiskStore.class));
+        Service cs = child.getInstance(Service.class);
+        child.close();
+        assertTrue(((DiskStore) cs.store).closed);
+        assertFalse(ps.clock.closed);
+        parent.close();
+        assertTrue(ps.clock.closed);
+    }
+
+    public interface Store {}
+
+    public static class MemoryStore implements Store {
+        @Inject
+        public MemoryStore() {}
+    }
+
+    public static class DiskStore implements Store, AutoCloseable {
+        boolean closed;
+
+        @Inject
+        public DiskStore() {}
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    @Singleton
+    public static class Clock implements AutoCloseable {
+        boolean closed;
+
+        @Inject
+        public Clock() {}
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    public static class Service {
+        final Store store;
+        final Clock clock;
+
+        @Inject
+        public Service(Store s, Clock c) {
+            store = s;
+            clock = c;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+/**
+ * Test that components are constructed with per-node coordination rather than a global lock.
+ */
+public class ConcurrentConstructionTest {
+    @Before
+    public void resetCounters() {
+        Slow.started = new CountDownLatch(1);
+        Slow.release = new CountDownLatch(1);
+        Slow.count.set(0);
+        Broken.count.set(0);
+    }
+
+    @Test
+    public void testUnrelatedSingletonsBuildConcurrently() throws Exception {
+        Injector inj = InjectorBuilder.create().build();
+        ExecutorService exec = Executors.newFixedThreadPool(2);
+        try {
+            Future<Slow> slow = exec.submit(() -> inj.getInstance(Slow.class));
+            assertTrue("slow component started",
+                       Slow.started.await(5, TimeUnit.SECONDS));
+            // while Slow is blocked mid-construction, an unrelated component must still build
+            Future<Fast> fast = exec.submit(() -> inj.getInstance(Fast.class));
+            assertThat(fast.get(5, TimeUnit.SECONDS), notNullValue());
+            assertFalse(slow.isDone());
+            Slow.release.countDown();
+            assertThat(slow.get(5, TimeUnit.SECONDS), notNullValue());
+        } finally {
+            Slow.release.countDown();
+            exec.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSharedNodeBuiltOnce() throws Exception {
+        Injector inj = InjectorBuilder.create().build();
+        ExecutorService exec = Executors.newFixedThreadPool(4);
+        try {
+            Future<Slow> first = exec.submit(() -> inj.getInstance(Slow.class));
+            assertTrue(Slow.started.await(5, TimeUnit.SECONDS));
+            Future<Slow> second = exec.submit(() -> inj.getInstance(Slow.class));
+            Future<Slow> third = exec.submit(() -> inj.getInstance(Slow.class));
+            Slow.release.countDown();
+            Slow s = first.get(5, TimeUnit.SECONDS);
+            assertThat(second.get(5, TimeUnit.SECONDS), sameInstance(s));
+            assertThat(third.get(5, TimeUnit.SECONDS), sameInstance(s));
+            assertThat(Slow.count.get(), equalTo(1));
+        } finally {
+            Slow.release.countDown();
+            exec.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailureMemoized() throws Exception {
+        Injector inj = InjectorBuilder.create().build();
+        ConstructionException first = null;
+        try {
+            inj.getInstance(Broken.class);
+            fail("construction should fail");
+        } catch (ConstructionException e) {
+            first = e;
+        }
+        try {
+            inj.getInstance(Broken.class);
+            fail("construction should fail");
+        } catch (ConstructionException e) {
+            assertThat(e, sameInstance(first));
+        }
+        assertThat(Broken.count.get(), equalTo(1));
+    }
+
+    @Singleton
+    public static class Slow {
+        static CountDownLatch started;
+        static CountDownLatch release;
+        static final AtomicInteger count = new AtomicInteger();
+
+        @Inject
+        public Slow() throws InterruptedException {
+            count.incrementAndGet();
+            started.countDown();
+            release.await();
+        }
+    }
+
+    @Singleton
+    public static class Fast {
+        @Inject
+        public Fast() {}
+    }
+
+    @Singleton
+    public static class Broken {
+        static final AtomicInteger count = new AtomicInteger();
+
+        @Inject
+        public Broken() {
+            count.incrementAndGet();
+            throw new IllegalStateException("broken");
+        }
+    }
+}
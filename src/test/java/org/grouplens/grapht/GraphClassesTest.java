@@ -0,0 +1,129 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht;
+
+import com.google.common.collect.Ordering;
+import org.grouplens.grapht.graph.DAGNode;
+import org.grouplens.grapht.reflect.Desires;
+import org.grouplens.grapht.solver.DependencySolver;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class GraphClassesTest {
+    private DAGNode<Component, Dependency> graph;
+
+    @Before
+    public void solveGraph() throws ResolutionException {
+        BindingFunctionBuilder bld = new BindingFunctionBuilder();
+        bld.getRootContext()
+           .bind(String.class)
+           .withQualifier(Names.named("greeting"))
+           .to("hello");
+        bld.getRootContext()
+           .bind(Leaf.class)
+           .toProvider(LeafProvider.class);
+        DependencySolver solver =
+                DependencySolver.newBuilder()
+                                .addBindingFunction(bld.build(BindingFunctionBuilder.RuleSet.EXPLICIT))
+                                .build();
+        solver.resolve(Desires.create(null, Top.class, false));
+        graph = solver.getGraph();
+    }
+
+    @Test
+    public void testFindClasses() {
+        assertThat(GraphClasses.findClasses(graph),
+                   hasItems(Top.class, Base.class, Leaf.class, LeafProvider.class,
+                            Provider.class, Serializable.class, String.class,
+                            Named.class, Object.class));
+    }
+
+    @Test
+    public void testPreload() throws ExecutionException, InterruptedException {
+        GraphClasses.preload(graph).get();
+    }
+
+    @Test
+    public void testWriteClassList() throws IOException {
+        StringWriter out = new StringWriter();
+        GraphClasses.writeClassList(graph, out);
+        List<String> lines = Arrays.asList(out.toString().split("\n"));
+        assertThat(lines, hasItems("org/grouplens/grapht/GraphClassesTest$Top",
+                                   "java/lang/String",
+                                   "javax/inject/Named"));
+        assertThat(lines, equalTo(Ordering.natural().sortedCopy(lines)));
+    }
+
+    @Test
+    public void testClassListSkipsProxies() {
+        Named named = Names.named("foo");
+        assertThat(GraphClasses.getClassListName(named.getClass()), nullValue());
+        assertThat(GraphClasses.getClassListName(Top.class),
+                   equalTo("org/grouplens/grapht/GraphClassesTest$Top"));
+        Runnable lambda = () -> { };
+        assertThat(GraphClasses.getClassListName(lambda.getClass()), nullValue());
+    }
+
+    @Test
+    public void testClassListKeepsAnonymousClasses() {
+        Object anon = new Object() { };
+        assertThat(GraphClasses.getClassListName(anon.getClass()),
+                   equalTo("org/grouplens/grapht/GraphClassesTest$1"));
+    }
+
+    public static class Leaf {
+    }
+
+    public static class LeafProvider implements Provider<Leaf> {
+        @Override
+        public Leaf get() {
+            return new Leaf();
+        }
+    }
+
+    public static class Base {
+        @Inject
+        Leaf baseLeaf;
+    }
+
+    public static class Top extends Base {
+        @Inject
+        public Top(@Named("greeting") String greeting) {
+        }
+    }
+}
@@ -25,8 +25,16 @@
 package org.grouplens.grapht;
 
 import org.grouplens.grapht.graph.DAGNode;
+import org.grouplens.grapht.reflect.Desire;
 import org.grouplens.grapht.reflect.Desires;
+import org.grouplens.grapht.solver.BindingFunction;
+import org.grouplens.grapht.solver.BindingResult;
+import org.grouplens.grapht.solver.DefaultInjector;
 import org.grouplens.grapht.solver.DependencySolver;
+import org.grouplens.grapht.solver.DesireChain;
+import org.grouplens.grapht.solver.InjectionContext;
+import org.grouplens.grapht.synthetic.SyntheticGraph;
+import org.grouplens.grapht.synthetic.SyntheticGraphGenerator;
 import org.junit.Test;
 
 import javax.inject.Inject;
@@ -217,6 +225,101 @@ public class GraphRewritingTest {
         assertThat(graph2, sameInstance(graph));
     }
 
+    private static DAGNode<Component, Dependency> buildGraph(SyntheticGraph synth) throws InjectionException {
+        DefaultInjector inj = (DefaultInjector) InjectorBuilder.create(synth.getClassLoader(),
+                                                                       synth.getModule())
+                                                               .build();
+        inj.getInstance(synth.getRootType());
+        return inj.getSolver().getGraph();
+    }
+
+    @Test
+    public void testRewriteSharedNodesOnce() throws Exception {
+        // 2^10 paths through 21 nodes
+        SyntheticGraph synth = new SyntheticGraphGenerator().setDepth(10).setFanOut(2).generate();
+        DAGNode<Component, Dependency> graph = buildGraph(synth);
+        int edges = 0;
+        for (DAGNode<Component, Dependency> node: graph.getReachableNodes()) {
+            edges += node.getOutgoingEdges().size();
+        }
+
+        CountingTrigger counter = new CountingTrigger(null, false);
+        DependencySolver rewriter =
+                DependencySolver.newBuilder()
+                                .addBindingFunction(counter, true)
+                                .build();
+
+        DAGNode<Component, Dependency> graph2 = rewriter.rewrite(graph);
+        assertThat(graph2, sameInstance(graph));
+        assertThat(counter.calls, lessThanOrEqualTo(edges));
+    }
+
+    @Test
+    public void testRewriteSkipsUntriggeredSubgraphs() throws Exception {
+        SyntheticGraph synth = new SyntheticGraphGenerator().setDepth(10).setFanOut(2).generate();
+        DAGNode<Component, Dependency> graph = buildGraph(synth);
+
+        // a context-sensitive trigger must see each path, but only the paths to I1_0 matter
+        CountingTrigger counter = new CountingTrigger(synth.getGeneratedClass("I1_0"), true);
+        DependencySolver rewriter =
+                DependencySolver.newBuilder()
+                                .addBindingFunction(counter, true)
+                                .build();
+
+        DAGNode<Component, Dependency> graph2 = rewriter.rewrite(graph);
+        assertThat(graph2, sameInstance(graph));
+        // one edge to I1_0 from each of C0_0 and C0_1
+        assertThat(counter.calls, equalTo(2));
+    }
+
+    @Test
+    public void testTriggerRuleIndex() {
+        BindingFunctionBuilder config = new BindingFunctionBuilder();
+        config.getRootContext()
+              .bind(I2.class)
+              .to(B.class);
+        BindingFunction fn = config.build(BindingFunctionBuilder.RuleSet.EXPLICIT);
+        assertThat(fn.isContextSensitive(), equalTo(false));
+        assertThat(fn.mayBind(Desires.create(null, I2.class, false)), equalTo(true));
+        assertThat(fn.mayBind(Desires.create(null, I.class, false)), equalTo(false));
+        config.getRootContext()
+              .within(C.class)
+              .bind(I2.class)
+              .to(A.class);
+        assertThat(config.build(BindingFunctionBuilder.RuleSet.EXPLICIT).isContextSensitive(),
+                   equalTo(true));
+    }
+
+    /**
+     * Trigger function that counts its calls and never binds anything.
+     */
+    private static class CountingTrigger implements BindingFunction {
+        private final Class<?> type;
+        private final boolean contextSensitive;
+        int calls;
+
+        CountingTrigger(Class<?> type, boolean contextSensitive) {
+            this.type = type;
+            this.contextSensitive = contextSensitive;
+        }
+
+        @Override
+        public BindingResult bind(InjectionContext context, DesireChain desire) {
+            calls++;
+            return null;
+        }
+
+        @Override
+        public boolean isContextSensitive() {
+            return contextSensitive;
+        }
+
+        @Override
+        public boolean mayBind(Desire desire) {
+            return type == null || desire.getDesiredType().equals(type);
+        }
+    }
+
     public static interface I {}
     public static interface I2 {}
     public static class C implements I {
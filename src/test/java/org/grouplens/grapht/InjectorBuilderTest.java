@@ -29,7 +29,10 @@ import org.grouplens.grapht.reflect.internal.types.*;
 import org.junit.Assert;
 import org.junit.Test;
 
+import javax.inject.Inject;
 import javax.inject.Named;
+import java.util.ArrayList;
+import java.util.List;
 
 public class InjectorBuilderTest {
     @Test
@@ -265,6 +268,32 @@ public class InjectorBuilderTest {
         i.getInstance(TypeN2.class);
     }
     
+    @Test
+    public void testEqualInstancesNotShared() throws InjectionException {
+        List<String> l1 = new ArrayList<String>();
+        List<String> l2 = new ArrayList<String>();
+        InjectorBuilder b1 = InjectorBuilder.create();
+        b1.bind(List.class).to(l1);
+        InjectorBuilder b2 = InjectorBuilder.create();
+        b2.bind(List.class).to(l2);
+        Injector i1 = b1.build();
+        Injector i2 = b2.build();
+
+        Assert.assertSame(l1, i1.getInstance(ListHolder.class).list);
+        Assert.assertSame(l2, i2.getInstance(ListHolder.class).list);
+        Assert.assertSame(l1, i1.getInstance(List.class));
+        Assert.assertSame(l2, i2.getInstance(List.class));
+    }
+
+    public static class ListHolder {
+        final List<?> list;
+
+        @Inject
+        public ListHolder(List<?> list) {
+            this.list = list;
+        }
+    }
+
     public static interface ShouldWork { }
     
     public static class NotInjectable implements ShouldWork {
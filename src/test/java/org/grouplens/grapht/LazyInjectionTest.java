@@ -0,0 +1,174 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht;
+
+import org.grouplens.grapht.annotation.Lazy;
+import org.grouplens.grapht.reflect.internal.types.HiddenLazyUser;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+public class LazyInjectionTest {
+    @Before
+    public void resetCounter() {
+        HeavyImpl.count.set(0);
+    }
+
+    @Test
+    public void testLazyBinding() throws Exception {
+        InjectorBuilder b = InjectorBuilder.create();
+        b.bind(Heavy.class).lazy().to(HeavyImpl.class);
+        Injector i = b.build();
+
+        User user = i.getInstance(User.class);
+        assertThat(user.heavy, notNullValue());
+        assertThat(user.heavy, not(instanceOf(HeavyImpl.class)));
+        assertThat(HeavyImpl.count.get(), equalTo(0));
+
+        assertThat(user.heavy.compute(), equalTo(42));
+        assertThat(user.heavy.compute(), equalTo(42));
+        assertThat(HeavyImpl.count.get(), equalTo(1));
+    }
+
+    @Test
+    public void testLazyAnnotation() throws Exception {
+        InjectorBuilder b = InjectorBuilder.create();
+        b.bind(Heavy.class).to(HeavyImpl.class);
+        Injector i = b.build();
+
+        LazyUser user = i.getInstance(LazyUser.class);
+        assertThat(HeavyImpl.count.get(), equalTo(0));
+        assertThat(user.heavy.compute(), equalTo(42));
+        assertThat(HeavyImpl.count.get(), equalTo(1));
+        // the proxy should defer to the memoized instance
+        assertThat(i.getInstance(Heavy.class).compute(), equalTo(42));
+        assertThat(HeavyImpl.count.get(), equalTo(1));
+    }
+
+    @Test
+    public void testObjectMethodsDoNotInstantiate() throws Exception {
+        InjectorBuilder b = InjectorBuilder.create();
+        b.bind(Heavy.class).lazy().to(HeavyImpl.class);
+        Injector i = b.build();
+
+        Heavy heavy = i.getInstance(User.class).heavy;
+        assertThat(heavy.toString(), containsString(Heavy.class.getName()));
+        assertThat(heavy.hashCode(), equalTo(System.identityHashCode(heavy)));
+        assertThat(heavy.equals(heavy), equalTo(true));
+        assertThat(heavy.equals(new HeavyImpl()), equalTo(false));
+        // only the HeavyImpl created above
+        assertThat(HeavyImpl.count.get(), equalTo(1));
+    }
+
+    @Test
+    public void testPackagePrivateInterface() throws Exception {
+        InjectorBuilder b = InjectorBuilder.create();
+        HiddenLazyUser.configure(b);
+        Injector i = b.build();
+
+        HiddenLazyUser user = i.getInstance(HiddenLazyUser.class);
+        assertThat(user.isProxied(), equalTo(true));
+        assertThat(user.getValue(), equalTo("hidden"));
+    }
+
+    @Test
+    public void testConstructionFailure() throws Exception {
+        InjectorBuilder b = InjectorBuilder.create();
+        b.bind(Heavy.class).lazy().to(BrokenHeavy.class);
+        Injector i = b.build();
+
+        User user = i.getInstance(User.class);
+        try {
+            user.heavy.compute();
+            fail("lazy construction should fail");
+        } catch (LazyConstructionException e) {
+            assertThat(e.getCause(), instanceOf(ConstructionException.class));
+        }
+    }
+
+    @Test
+    public void testEagerByDefault() throws Exception {
+        InjectorBuilder b = InjectorBuilder.create();
+        b.bind(Heavy.class).to(HeavyImpl.class);
+        Injector i = b.build();
+
+        User user = i.getInstance(User.class);
+        assertThat(user.heavy, instanceOf(HeavyImpl.class));
+        assertThat(HeavyImpl.count.get(), equalTo(1));
+    }
+
+    public interface Heavy {
+        int compute();
+    }
+
+    public static class HeavyImpl implements Heavy {
+        static final AtomicInteger count = new AtomicInteger();
+
+        @Inject
+        public HeavyImpl() {
+            count.incrementAndGet();
+        }
+
+        @Override
+        public int compute() {
+            return 42;
+        }
+    }
+
+    public static class BrokenHeavy implements Heavy {
+        @Inject
+        public BrokenHeavy() {
+            throw new IllegalStateException("broken");
+        }
+
+        @Override
+        public int compute() {
+            return 0;
+        }
+    }
+
+    public static class User {
+        final Heavy heavy;
+
+        @Inject
+        public User(Heavy h) {
+            heavy = h;
+        }
+    }
+
+    public static class LazyUser {
+        final Heavy heavy;
+
+        @Inject
+        public LazyUser(@Lazy Heavy h) {
+            heavy = h;
+        }
+    }
+}
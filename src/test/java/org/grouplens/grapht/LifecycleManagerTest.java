@@ -0,0 +1,224 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht;
+
+import com.google.common.util.concurrent.UncheckedTimeoutException;
+import org.grouplens.grapht.graph.DAGNode;
+import org.grouplens.grapht.reflect.Desire;
+import org.grouplens.grapht.reflect.Desires;
+import org.grouplens.grapht.reflect.MockSatisfaction;
+import org.grouplens.grapht.reflect.Satisfaction;
+import org.grouplens.grapht.solver.DesireChain;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+public class LifecycleManagerTest {
+    static final List<String> closed = Collections.synchronizedList(new ArrayList<String>());
+
+    @Before
+    public void clear() {
+        closed.clear();
+    }
+
+    @Test
+    public void testDependentsClosedFirst() throws Exception {
+        Injector inj = InjectorBuilder.create().build();
+        inj.getInstance(Top.class);
+        inj.close();
+        assertThat(closed, contains("top", "middle", "bottom"));
+    }
+
+    @Test
+    public void testIndependentComponentsCloseInParallel() throws Exception {
+        ExecutorService exec = Executors.newFixedThreadPool(2);
+        try {
+            LifecycleManager lm = new LifecycleManager();
+            lm.setExecutor(exec);
+            CountDownLatch bothClosing = new CountDownLatch(2);
+            // each component waits for the other; sequential teardown would fail
+            lm.forNode(node(Object.class)).registerComponent(new Waiter("left", bothClosing));
+            lm.forNode(node(String.class)).registerComponent(new Waiter("right", bothClosing));
+            lm.close();
+            assertThat(closed, containsInAnyOrder("left", "right"));
+        } finally {
+            exec.shutdown();
+        }
+    }
+
+    @Test
+    public void testLongChainClosedInOrder() throws Exception {
+        Dependency dep = Dependency.create(DesireChain.singleton(Desires.create(null, Object.class, false)),
+                                           EnumSet.noneOf(Dependency.Flag.class));
+        LifecycleManager lm = new LifecycleManager();
+        List<String> expected = new ArrayList<String>();
+        DAGNode<Component, Dependency> node = node(Object.class);
+        for (int i = 0; i < 1000; i++) {
+            lm.forNode(node).registerComponent(new Recorder(Integer.toString(i)));
+            expected.add(0, Integer.toString(i));
+            node = DAGNode.<Component, Dependency>newBuilder(node.getLabel())
+                          .addEdge(node, dep)
+                          .build();
+        }
+        lm.close();
+        assertThat(closed, equalTo(expected));
+    }
+
+    @Test
+    public void testLegacySatisfactionRegistersComponents() throws Exception {
+        final Recorder rec = new Recorder("legacy");
+        Satisfaction sat = new MockSatisfaction(Recorder.class) {
+            @Override
+            public Instantiator makeInstantiator(Map<Desire,Instantiator> deps, LifecycleManager lm) {
+                lm.registerComponent(rec);
+                return Instantiators.ofInstance(rec);
+            }
+        };
+        LifecycleManager lm = new LifecycleManager();
+        Map<Desire,Instantiator> deps = Collections.emptyMap();
+        assertThat(sat.makeInstantiator(deps, lm.forNode(node(Recorder.class))).instantiate(),
+                   sameInstance((Object) rec));
+        lm.close();
+        assertThat(closed, contains("legacy"));
+    }
+
+    @Test
+    public void testContainerWithoutManager() throws Exception {
+        InjectionContainer container = InjectionContainer.create(CachePolicy.MEMOIZE);
+        DAGNode<Component, Dependency> node = node(Object.class);
+        assertThat(container.makeInstantiator(node).instantiate(), nullValue());
+    }
+
+    @Test
+    public void testUntrackedClosedInReverseOrder() throws Exception {
+        LifecycleManager lm = new LifecycleManager();
+        lm.registerComponent(new Recorder("first"));
+        lm.registerComponent(new Recorder("second"));
+        lm.close();
+        assertThat(closed, contains("second", "first"));
+    }
+
+    @Test
+    public void testFailuresDoNotStopTeardown() throws Exception {
+        LifecycleManager lm = new LifecycleManager();
+        lm.registerComponent(new Recorder("ok"));
+        lm.registerComponent((AutoCloseable) () -> { throw new IllegalStateException("broken"); });
+        try {
+            lm.close();
+            fail("close should fail");
+        } catch (RuntimeException e) {
+            assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+        }
+        assertThat(closed, contains("ok"));
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        LifecycleManager lm = new LifecycleManager();
+        lm.setTimeout(50, TimeUnit.MILLISECONDS);
+        lm.forNode(node(Object.class)).registerComponent((AutoCloseable) release::await);
+        try {
+            lm.close();
+            fail("close should time out");
+        } catch (UncheckedTimeoutException e) {
+            /* expected */
+        } finally {
+            release.countDown();
+        }
+    }
+
+    public static class Recorder implements AutoCloseable {
+        private final String name;
+
+        public Recorder(String n) {
+            name = n;
+        }
+
+        @Override
+        public void close() {
+            closed.add(name);
+        }
+    }
+
+    public static class Bottom extends Recorder {
+        @Inject
+        public Bottom() {
+            super("bottom");
+        }
+    }
+
+    public static class Middle extends Recorder {
+        @Inject
+        public Middle(Bottom b) {
+            super("middle");
+        }
+    }
+
+    public static class Top extends Recorder {
+        @Inject
+        public Top(Middle m, Bottom b) {
+            super("top");
+        }
+    }
+
+    private static DAGNode<Component, Dependency> node(Class<?> type) {
+        return DAGNode.singleton(Component.create(new MockSatisfaction(type), CachePolicy.MEMOIZE));
+    }
+
+    private static class Waiter extends Recorder {
+        private final CountDownLatch latch;
+
+        Waiter(String n, CountDownLatch l) {
+            super(n);
+            latch = l;
+        }
+
+        @Override
+        public void close() {
+            latch.countDown();
+            try {
+                if (latch.await(5, TimeUnit.SECONDS)) {
+                    super.close();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
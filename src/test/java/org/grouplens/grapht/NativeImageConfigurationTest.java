@@ -0,0 +1,162 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht;
+
+import org.grouplens.grapht.annotation.AnnotationBuilder;
+import org.grouplens.grapht.graph.DAGNode;
+import org.grouplens.grapht.reflect.Desires;
+import org.grouplens.grapht.solver.DependencySolver;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class NativeImageConfigurationTest {
+    private NativeImageConfiguration config;
+
+    @Before
+    public void solveGraph() throws ResolutionException {
+        BindingFunctionBuilder bld = new BindingFunctionBuilder();
+        bld.getRootContext()
+           .bind(String.class)
+           .withQualifier(Names.named("greeting"))
+           .to("hello");
+        DependencySolver solver =
+                DependencySolver.newBuilder()
+                                .addBindingFunction(bld.build(BindingFunctionBuilder.RuleSet.EXPLICIT))
+                                .build();
+        Named qual = AnnotationBuilder.of(Named.class).setValue("top").build();
+        solver.resolve(Desires.create(qual, Top.class, false));
+        DAGNode<Component, Dependency> graph = solver.getGraph();
+        config = NativeImageConfiguration.fromGraph(graph);
+    }
+
+    @Test
+    public void testReflectedClasses() throws IOException {
+        assertThat(config.getReflectedClasses(),
+                   containsInAnyOrder(Top.class.getName(), Base.class.getName(),
+                                      Leaf.class.getName(), Named.class.getName()));
+
+        StringWriter out = new StringWriter();
+        config.writeReflectionConfig(out);
+        String json = out.toString();
+        assertThat(json, containsString("{\"name\": \"<init>\", \"parameterTypes\": [\"java.lang.String\"]}"));
+        assertThat(json, containsString("{\"name\": \"setLeaf\", \"parameterTypes\": [\"" + Leaf.class.getName() + "\"]}"));
+        assertThat(json, containsString("{\"name\": \"init\", \"parameterTypes\": []}"));
+        assertThat(json, containsString("{\"name\": \"baseLeaf\"}"));
+        assertThat(json, containsString("{\"name\": \"<init>\", \"parameterTypes\": []}"));
+    }
+
+    @Test
+    public void testProxies() throws IOException {
+        // the root desire's qualifier was built, the constructor parameter's was not
+        assertThat(config.getProxyInterfaces(), contains(Named.class.getName()));
+        StringWriter out = new StringWriter();
+        config.writeProxyConfig(out);
+        assertThat(out.toString(),
+                   equalTo("[\n  {\"interfaces\": [\"javax.inject.Named\"]}\n]\n"));
+    }
+
+    @Test
+    public void testLazyProxies() throws ResolutionException {
+        BindingFunctionBuilder bld = new BindingFunctionBuilder();
+        bld.getRootContext()
+           .bind(LazyInjectionTest.Heavy.class)
+           .to(LazyInjectionTest.HeavyImpl.class);
+        DependencySolver solver =
+                DependencySolver.newBuilder()
+                                .addBindingFunction(bld.build(BindingFunctionBuilder.RuleSet.EXPLICIT))
+                                .build();
+        solver.resolve(Desires.create(null, LazyInjectionTest.LazyUser.class, false));
+        NativeImageConfiguration lazy = NativeImageConfiguration.fromGraph(solver.getGraph());
+        assertThat(lazy.getProxyInterfaces(), contains(LazyInjectionTest.Heavy.class.getName()));
+    }
+
+    @Test
+    public void testResources() throws IOException {
+        StringWriter out = new StringWriter();
+        config.writeResourceConfig(out);
+        assertThat(out.toString(),
+                   containsString("\"\\\\QMETA-INF/grapht/defaults/" + Leaf.class.getCanonicalName()
+                                  + ".properties\\\\E\""));
+        assertThat(out.toString(),
+                   containsString("\"\\\\QMETA-INF/grapht/checksums.properties\\\\E\""));
+    }
+
+    @Test
+    public void testWriteTo() throws IOException {
+        File dir = Files.createTempDirectory("native-image").toFile();
+        try {
+            config.writeTo(dir);
+            assertThat(new File(dir, "reflect-config.json").isFile(), equalTo(true));
+            assertThat(new File(dir, "proxy-config.json").isFile(), equalTo(true));
+            assertThat(new File(dir, "resource-config.json").isFile(), equalTo(true));
+        } finally {
+            for (File f: dir.listFiles()) {
+                f.delete();
+            }
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void testQuote() {
+        assertThat(NativeImageConfiguration.quote("a\"b\\c\n"),
+                   equalTo("\"a\\\"b\\\\c\\u000a\""));
+    }
+
+    public static class Leaf {
+    }
+
+    public static class Base {
+        @Inject
+        Leaf baseLeaf;
+    }
+
+    public static class Top extends Base {
+        private Leaf leaf;
+
+        @Inject
+        public Top(@Named("greeting") String greeting) {
+        }
+
+        @Inject
+        public void setLeaf(Leaf leaf) {
+            this.leaf = leaf;
+        }
+
+        @Inject
+        public void init() {
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht;
+
+import org.junit.Test;
+
+import javax.inject.Inject;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+public class ScopedCachePolicyTest {
+    @Test
+    public void testThreadLocal() throws Exception {
+        InjectorBuilder b = InjectorBuilder.create();
+        b.bind(Buffer.class).threadLocal().to(Buffer.class);
+        Injector i = b.build();
+
+        Buffer b1 = i.getInstance(Buffer.class);
+        assertThat(i.getInstance(Buffer.class), sameInstance(b1));
+
+        ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            Future<Buffer> other = exec.submit(() -> i.getInstance(Buffer.class));
+            assertThat(other.get(), not(sameInstance(b1)));
+            assertThat(exec.submit(() -> i.getInstance(Buffer.class)).get(),
+                       sameInstance(other.get()));
+        } finally {
+            exec.shutdown();
+        }
+    }
+
+    @Test
+    public void testNewInstanceOutranksThreadLocal() throws Exception {
+        // a later unshared binding in the chain asks for fewer shared instances, so it wins
+        InjectorBuilder b = InjectorBuilder.create();
+        b.bind(Sink.class).threadLocal().to(BufferSink.class);
+        b.bind(BufferSink.class).unshared().to(BufferSink.class);
+        Injector i = b.build();
+
+        assertThat(i.getInstance(Sink.class), not(sameInstance(i.getInstance(Sink.class))));
+    }
+
+    @Test
+    public void testPolicyPrecedence() {
+        assertThat(CachePolicy.NEW_INSTANCE.getPrecedence(),
+                   greaterThan(CachePolicy.THREAD_LOCAL.getPrecedence()));
+        assertThat(CachePolicy.THREAD_LOCAL.getPrecedence(),
+                   greaterThan(CachePolicy.SCOPED.getPrecedence()));
+        assertThat(CachePolicy.SCOPED.getPrecedence(),
+                   greaterThan(CachePolicy.MEMOIZE.getPrecedence()));
+        assertThat(CachePolicy.MEMOIZE.getPrecedence(),
+                   greaterThan(CachePolicy.NO_PREFERENCE.getPrecedence()));
+    }
+
+    @Test
+    public void testScoped() throws Exception {
+        InjectorBuilder b = InjectorBuilder.create();
+        b.bind(Buffer.class).scoped().to(Buffer.class);
+        Injector i = b.build();
+
+        Buffer b1, b2;
+        try (Scope scope = Scope.create()) {
+            try (Scope.Activation act = scope.enter()) {
+                b1 = i.getInstance(Buffer.class);
+                assertThat(i.getInstance(Buffer.class), sameInstance(b1));
+            }
+            try (Scope.Activation act = scope.enter()) {
+                assertThat(i.getInstance(Buffer.class), sameInstance(b1));
+            }
+        }
+        try (Scope scope = Scope.create();
+             Scope.Activation act = scope.enter()) {
+            b2 = i.getInstance(Buffer.class);
+        }
+        assertThat(b2, not(sameInstance(b1)));
+        assertThat(Scope.current(), nullValue());
+    }
+
+    @Test
+    public void testScopeClosesComponents() throws Exception {
+        InjectorBuilder b = InjectorBuilder.create();
+        b.bind(Buffer.class).scoped().to(Buffer.class);
+        Injector i = b.build();
+
+        Buffer buf;
+        try (Scope scope = Scope.create();
+             Scope.Activation act = scope.enter()) {
+            buf = i.getInstance(Buffer.class);
+            assertFalse(buf.closed);
+        }
+        assertTrue("scope closed the component", buf.closed);
+        i.close();
+    }
+
+    @Test(expected = ConstructionException.class)
+    public void testScopedRequiresScope() throws Exception {
+        InjectorBuilder b = InjectorBuilder.create();
+        b.bind(Buffer.class).scoped().to(Buffer.class);
+        Injector i = b.build();
+        i.getInstance(Buffer.class);
+    }
+
+    public static class Buffer implements AutoCloseable {
+        boolean closed = false;
+
+        @Inject
+        public Buffer() {}
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    public interface Sink {
+    }
+
+    public static class BufferSink implements Sink {
+    }
+}
@@ -27,12 +27,16 @@ package org.grouplens.grapht.graph;
 import com.google.common.base.Function;
 import com.google.common.base.Functions;
 import com.google.common.base.Predicates;
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
 import org.junit.Test;
 
 import javax.annotation.Nullable;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.Matchers.*;
@@ -75,6 +79,89 @@ public class TestDAGNode {
                    equalTo(foo));
     }
 
+    @Test
+    public void testDeepChain() {
+        // deep enough to overflow the stack with one frame per level
+        int depth = 50000;
+        DAGNode<String,String> leaf = DAGNode.singleton("leaf");
+        DAGNode<String,String> node = leaf;
+        for (int i = 0; i < depth; i++) {
+            node = DAGNode.<String,String>newBuilder("n" + i)
+                          .addEdge(node, "e" + i)
+                          .build();
+        }
+        final DAGNode<String,String> root = node;
+
+        assertThat(root.getSortedNodes(), hasSize(depth + 1));
+        assertThat(root.getSortedNodes().get(0), sameInstance(leaf));
+        assertThat(root.getSortedNodes().get(depth), sameInstance(root));
+        assertThat(root.getReachableNodes(), hasSize(depth + 1));
+        assertThat(root.getIncomingEdges(leaf), hasSize(1));
+        assertThat(root.getIncomingEdges(leaf).iterator().next().getLabel(), equalTo("e0"));
+
+        DAGNode<String,String> newLeaf = DAGNode.singleton("wombat");
+        Map<DAGNode<String,String>,DAGNode<String,String>> memory = Maps.newHashMap();
+        DAGNode<String,String> replaced = root.replaceNode(leaf, newLeaf, memory);
+        assertThat(memory.size(), equalTo(depth + 1));
+        assertThat(replaced.getLabel(), equalTo("n" + (depth - 1)));
+        assertThat(replaced.getSortedNodes().get(0), sameInstance(newLeaf));
+
+        final DAGNode<String,String> finalLeaf = leaf;
+        DAGNode<String,String> transformed = root.transformEdges(e -> {
+            if (e.getTail() == finalLeaf) {
+                return DAGEdge.create(e.getHead(), newLeaf, e.getLabel());
+            } else {
+                return null;
+            }
+        });
+        assertThat(transformed, not(sameInstance(root)));
+        assertThat(transformed.getSortedNodes(), hasSize(depth + 1));
+        assertThat(transformed.getSortedNodes().get(0), sameInstance(newLeaf));
+        assertThat(root.transformEdges(e -> null), sameInstance(root));
+    }
+
+    private static final java.util.function.Function<String,String> SUFFIX = l -> l.substring(1);
+
+    @Test
+    public void testGetEdgeByKey() {
+        for (int n: new int[]{3, 20}) {
+            DAGNodeBuilder<String,String> bld = DAGNode.newBuilder("root");
+            for (int i = 0; i < n; i++) {
+                bld.addEdge(DAGNode.<String,String>singleton("n" + i), "e" + i);
+            }
+            DAGNode<String,String> root = bld.build();
+
+            DAGEdge<String,String> edge = root.getOutgoingEdgeByKey(SUFFIX, "2");
+            assertThat(edge, notNullValue());
+            assertThat(edge.getLabel(), equalTo("e2"));
+            assertThat(edge.getTail().getLabel(), equalTo("n2"));
+            assertThat(root.getOutgoingEdgeByKey(SUFFIX, "wombat"), nullValue());
+            // a different key function gets its own index
+            assertThat(root.getOutgoingEdgeByKey(java.util.function.Function.identity(), "e1").getLabel(),
+                       equalTo("e1"));
+            assertThat(root.getOutgoingEdgeByKey(SUFFIX, "1").getLabel(), equalTo("e1"));
+        }
+    }
+
+    @Test
+    public void testGetEdgeByNullKey() {
+        java.util.function.Function<String,String> digits = l -> l.length() > 2 ? null : l.substring(1);
+        for (int n: new int[]{3, 20}) {
+            DAGNodeBuilder<String,String> bld = DAGNode.newBuilder("root");
+            for (int i = 0; i < n; i++) {
+                bld.addEdge(DAGNode.<String,String>singleton("n" + i), "e" + i);
+            }
+            DAGNode<String,String> root = bld.build();
+
+            assertThat(root.getOutgoingEdgeByKey(digits, "2").getLabel(), equalTo("e2"));
+            if (n > 10) {
+                assertThat(root.getOutgoingEdgeByKey(digits, null).getLabel(), equalTo("e10"));
+            } else {
+                assertThat(root.getOutgoingEdgeByKey(digits, null), nullValue());
+            }
+        }
+    }
+
     @Test
     public void testGetReverseEdge() {
         DAGNode<String,String> foo = DAGNode.singleton("foo");
@@ -109,6 +196,13 @@ public class TestDAGNode {
                                       DAGEdge.create(blatz, foo, "skunk")));
         assertThat(head.getReachableNodes(),
                    containsInAnyOrder(foo, bar, blatz, head));
+        assertThat(head.getIncomingEdges(bar),
+                   contains(DAGEdge.create(head, bar, "wumpus")));
+        assertThat(head.getIncomingEdges(head), hasSize(0));
+        assertThat(head.getIncomingEdges(DAGNode.<String,String>singleton("foo")), hasSize(0));
+        // the subgraph only sees its own edges
+        assertThat(bar.getIncomingEdges(foo),
+                   contains(DAGEdge.create(bar, foo, "wombat")));
     }
 
     @Test
@@ -182,6 +276,43 @@ public class TestDAGNode {
                    equalTo("foo'"));
     }
 
+    @Test
+    public void testReplaceWithSuppliedIncomingEdges() {
+        DAGNode<String,String> foo, fooP, bar, blatz, graph;
+        foo = DAGNode.singleton("foo");
+        fooP = DAGNode.<String,String>newBuilder("foo'")
+                .addEdge(foo, "-> foo")
+                .build();
+        bar = DAGNode.<String,String>newBuilder("bar")
+                     .addEdge(fooP, "bar -> foo")
+                     .build();
+        blatz = DAGNode.<String,String>newBuilder("blatz")
+                       .addEdge(fooP, "blatz -> foo")
+                       .build();
+        graph = DAGNode.<String,String>newBuilder("graph")
+                .addEdge(bar, "-> bar")
+                .addEdge(blatz, "-> blatz")
+                .build();
+
+        SetMultimap<DAGNode<String,String>,DAGEdge<String,String>> index = HashMultimap.create();
+        for (DAGNode<String,String> node: graph.getReachableNodes()) {
+            for (DAGEdge<String,String> edge: node.getOutgoingEdges()) {
+                index.put(edge.getTail(), edge);
+            }
+        }
+        Set<DAGNode<String,String>> queried = new HashSet<>();
+        DAGNode<String,String> foo2 = DAGNode.singleton("foo2");
+        HashMap<DAGNode<String,String>,DAGNode<String,String>> memory = Maps.newHashMap();
+        DAGNode<String,String> replaced = graph.replaceNode(foo, foo2, memory, n -> {
+            queried.add(n);
+            return index.get(n);
+        });
+        assertThat(queried, containsInAnyOrder(graph, foo, fooP, bar, blatz));
+        assertThat(replaced.getReachableNodes(), hasSize(5));
+        assertThat(foo2, isIn(replaced.getReachableNodes()));
+        assertThat(memory.keySet(), containsInAnyOrder(graph, foo, fooP, bar, blatz));
+    }
+
     @Test
     public void testTransformEdgeNoop() {
         DAGNode<String,String> foo = DAGNode.singleton("foo");
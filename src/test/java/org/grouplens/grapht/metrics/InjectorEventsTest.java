@@ -0,0 +1,116 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.metrics;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.grouplens.grapht.Injector;
+import org.grouplens.grapht.InjectorBuilder;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import java.io.File;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class InjectorEventsTest {
+    @Test
+    public void testDisabledTokenIsIgnored() {
+        // no recording is running, so nothing should be recorded
+        Object event = InjectorEvents.begin(InjectorEvents.Kind.RESOLVE);
+        assertThat(event, nullValue());
+        InjectorEvents.end(null, "ignored", 0);
+        InjectorEvents.end(null, "ignored");
+    }
+
+    @Test
+    public void testRecordsEvents() throws Exception {
+        assumeTrue(InjectorEvents.isSupported());
+        File file = File.createTempFile("grapht", ".jfr");
+        try {
+            try (Recording rec = new Recording()) {
+                rec.enable("org.grouplens.grapht.Resolve");
+                rec.enable("org.grouplens.grapht.ResolveFully");
+                rec.enable("org.grouplens.grapht.Merge");
+                rec.enable("org.grouplens.grapht.Instantiate");
+                rec.enable("org.grouplens.grapht.ProviderInvocation");
+                rec.start();
+                Injector inj = InjectorBuilder.create()
+                                              .applyModule(ctx -> ctx.bind(Engine.class)
+                                                                     .toProvider(EngineProvider.class))
+                                              .build();
+                inj.getInstance(Car.class);
+                rec.stop();
+                rec.dump(file.toPath());
+            }
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+            Set<String> names = events.stream()
+                                      .map(e -> e.getEventType().getName())
+                                      .collect(Collectors.toSet());
+            assertThat(names, containsInAnyOrder("org.grouplens.grapht.Resolve",
+                                                 "org.grouplens.grapht.ResolveFully",
+                                                 "org.grouplens.grapht.Merge",
+                                                 "org.grouplens.grapht.Instantiate",
+                                                 "org.grouplens.grapht.ProviderInvocation"));
+            RecordedEvent engine =
+                    events.stream()
+                          .filter(e -> e.getEventType().getName().equals("org.grouplens.grapht.Instantiate"))
+                          .filter(e -> e.getString("subject").contains("Engine"))
+                          .findFirst()
+                          .get();
+            // the engine provider is built inside the car's construction
+            assertThat(engine.getInt("depth"), greaterThan(0));
+        } finally {
+            file.delete();
+        }
+    }
+
+    public interface Engine {}
+
+    public static class FastEngine implements Engine {
+        @Inject
+        public FastEngine() {}
+    }
+
+    public static class EngineProvider implements Provider<Engine> {
+        @Override
+        public Engine get() {
+            return new FastEngine();
+        }
+    }
+
+    public static class Car {
+        @Inject
+        public Car(Engine e) {}
+    }
+}
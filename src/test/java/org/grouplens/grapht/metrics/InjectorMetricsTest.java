@@ -0,0 +1,126 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.metrics;
+
+import org.grouplens.grapht.Injector;
+import org.grouplens.grapht.InjectorBuilder;
+import org.grouplens.grapht.solver.DefaultInjector;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+public class InjectorMetricsTest {
+    @Test
+    public void testRecordsInjectorMetrics() throws Exception {
+        InjectorMetrics metrics = InjectorMetrics.create();
+        Injector inj = InjectorBuilder.create()
+                                      .applyModule(ctx -> ctx.bind(Engine.class).to(FastEngine.class))
+                                      .setMetrics(metrics)
+                                      .build();
+        assertThat(((DefaultInjector) inj).getMetrics(), sameInstance(metrics));
+
+        Car car = inj.getInstance(Car.class);
+        assertThat(inj.getInstance(Car.class), sameInstance(car));
+
+        // Car and its Engine dependency
+        assertThat(metrics.getDesiresResolved(), equalTo(2L));
+        assertThat(metrics.getBindingFunctionHits().values().stream().mapToLong(Long::longValue).sum(),
+                   greaterThanOrEqualTo(2L));
+        assertThat(metrics.getContextMatchAttempts(), greaterThan(0L));
+        assertThat(metrics.getMergedNodes(), greaterThan(0L));
+        assertThat(metrics.getProviderCacheMisses(), greaterThan(0L));
+        assertThat(metrics.getProviderCacheHits(), greaterThan(0L));
+        assertThat(metrics.getConstructionLatencies().keySet(),
+                   containsInAnyOrder(Car.class, FastEngine.class));
+        assertThat(metrics.getConstructionLatencies().get(Car.class).getCount(), equalTo(1L));
+        assertThat(metrics.getLockAcquisitions(), equalTo(2L));
+
+        metrics.reset();
+        assertThat(metrics.getDesiresResolved(), equalTo(0L));
+        assertThat(metrics.getConstructionLatencies().isEmpty(), equalTo(true));
+    }
+
+    @Test
+    public void testDisabledRecordsNothing() throws Exception {
+        InjectorMetrics metrics = InjectorMetrics.disabled();
+        Injector inj = InjectorBuilder.create().build();
+        inj.getInstance(FastEngine.class);
+        assertThat(metrics.isEnabled(), equalTo(false));
+        assertThat(metrics.getDesiresResolved(), equalTo(0L));
+        assertThat(metrics.getProviderCacheMisses(), equalTo(0L));
+        assertThat(metrics.startTimer(), equalTo(0L));
+    }
+
+    @Test
+    public void testRegisterMBean() throws Exception {
+        InjectorMetrics metrics = InjectorMetrics.create();
+        Injector inj = InjectorBuilder.create().setMetrics(metrics).build();
+        inj.getInstance(FastEngine.class);
+
+        ObjectName name = metrics.registerMBean("test");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            assertThat(server.getAttribute(name, "DesiresResolved"), equalTo((Object) 1L));
+            assertThat(server.getAttribute(name, "Enabled"), equalTo((Object) true));
+            server.invoke(name, "reset", new Object[0], new String[0]);
+            assertThat(metrics.getDesiresResolved(), equalTo(0L));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram hist = new LatencyHistogram();
+        assertThat(hist.getPercentile(0.5), equalTo(0L));
+        for (int i = 0; i < 9; i++) {
+            hist.record(100);
+        }
+        hist.record(5000);
+        assertThat(hist.getCount(), equalTo(10L));
+        assertThat(hist.getMeanNanos(), closeTo(590, 0.001));
+        assertThat(hist.getPercentile(0.5), equalTo(127L));
+        assertThat(hist.getPercentile(1), equalTo(8191L));
+        assertThat(hist.getBuckets()[6], equalTo(9L));
+    }
+
+    public interface Engine {}
+
+    public static class FastEngine implements Engine {
+        @Inject
+        public FastEngine() {}
+    }
+
+    public static class Car {
+        @Inject
+        public Car(Engine e) {}
+    }
+}
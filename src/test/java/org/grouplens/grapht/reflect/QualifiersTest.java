@@ -35,6 +35,7 @@ import org.junit.Test;
 import javax.annotation.Nullable;
 import javax.inject.Qualifier;
 import java.io.InvalidObjectException;
+import java.lang.ref.WeakReference;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -42,6 +43,7 @@ import java.lang.annotation.RetentionPolicy;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
@@ -144,6 +146,64 @@ public class QualifiersTest {
         }
     }
 
+    @Test
+    public void testRejectCircularAliasAgain() {
+        // failures are cached, but must still be reported on every call
+        for (int i = 0; i < 2; i++) {
+            try {
+                Qualifiers.resolveAliases(Circle1.class);
+                fail("resolving a circular alias should throw an exception");
+            } catch (IllegalArgumentException ex) {
+                /* expected */
+            }
+        }
+    }
+
+    @Test
+    public void testQualifierIds() {
+        assertThat(Qualifiers.getQualifierId(null), equalTo(0));
+        int qid = Qualifiers.getQualifierId(makeQual());
+        assertThat(qid, not(equalTo(0)));
+        // aliases of nullary qualifiers share their target's ID
+        assertThat(Qualifiers.getQualifierId(AnnotationBuilder.of(AAQual.class).build()),
+                   equalTo(qid));
+        int foo = Qualifiers.getQualifierId(makeVQual("foo"));
+        assertThat(foo, not(equalTo(qid)));
+        assertThat(Qualifiers.getQualifierId(makeVQual("foo")), equalTo(foo));
+        assertThat(Qualifiers.getQualifierId(makeVQual("bar")), not(equalTo(foo)));
+    }
+
+    @VQual("collected")
+    private static Object reflected;
+
+    @Test
+    public void testQualifierIdsSurviveCollection() throws Exception {
+        VQual held = QualifiersTest.class.getDeclaredField("reflected").getAnnotation(VQual.class);
+        QualifierMatcher matcher = Qualifiers.match(held);
+        // look up the held qualifier while an equal built one is reachable
+        VQual built = makeVQual("collected");
+        assertThat(matcher.matches(built), equalTo(true));
+        WeakReference<VQual> ref = new WeakReference<VQual>(built);
+        built = null;
+        for (int i = 0; i < 50 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertThat(matcher.matches(makeVQual("collected")), equalTo(true));
+    }
+
+    @Test
+    public void testQualifierIdsDoNotRetainQualifiers() throws Exception {
+        VQual qual = makeVQual("transient");
+        Qualifiers.getQualifierId(qual);
+        WeakReference<VQual> ref = new WeakReference<VQual>(qual);
+        qual = null;
+        for (int i = 0; i < 50 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertThat(ref.get(), nullValue());
+    }
     @Test
     public void testMatchAny() throws Exception {
         assertThat(Qualifiers.matchAny().matches(null),
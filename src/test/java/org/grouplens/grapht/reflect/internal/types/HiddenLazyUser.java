@@ -0,0 +1,69 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.reflect.internal.types;
+
+import org.grouplens.grapht.InjectorBuilder;
+import org.grouplens.grapht.annotation.Lazy;
+
+import javax.inject.Inject;
+
+/**
+ * Lazily depends on an interface that is not visible outside this package.
+ */
+public class HiddenLazyUser {
+    private final Hidden hidden;
+
+    @Inject
+    public HiddenLazyUser(@Lazy Hidden h) {
+        hidden = h;
+    }
+
+    public static void configure(InjectorBuilder bld) {
+        bld.bind(Hidden.class).to(HiddenImpl.class);
+    }
+
+    public boolean isProxied() {
+        return !(hidden instanceof HiddenImpl);
+    }
+
+    public String getValue() {
+        return hidden.value();
+    }
+
+    interface Hidden {
+        String value();
+    }
+
+    static class HiddenImpl implements Hidden {
+        @Inject
+        public HiddenImpl() {
+        }
+
+        @Override
+        public String value() {
+            return "hidden";
+        }
+    }
+}
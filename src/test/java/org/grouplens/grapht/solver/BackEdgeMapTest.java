@@ -0,0 +1,95 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.solver;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.SetMultimap;
+import org.grouplens.grapht.CachePolicy;
+import org.grouplens.grapht.Component;
+import org.grouplens.grapht.Dependency;
+import org.grouplens.grapht.graph.DAGEdge;
+import org.grouplens.grapht.graph.DAGNode;
+import org.grouplens.grapht.reflect.Desires;
+import org.grouplens.grapht.reflect.MockSatisfaction;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class BackEdgeMapTest {
+    private static DAGNode<Component, Dependency> node(Class<?> type) {
+        return DAGNode.singleton(Component.create(new MockSatisfaction(type), CachePolicy.MEMOIZE));
+    }
+
+    private static Dependency dep(Class<?> type) {
+        return Dependency.create(DesireChain.singleton(Desires.create(null, type, false)),
+                                 Dependency.Flag.emptySet());
+    }
+
+    @Test
+    public void testSnapshotShared() {
+        BackEdgeMap map = new BackEdgeMap();
+        assertThat(map.snapshot().isEmpty(), equalTo(true));
+
+        DAGNode<Component, Dependency> a = node(String.class);
+        DAGNode<Component, Dependency> b = node(Integer.class);
+        DAGEdge<Component, Dependency> edge = DAGEdge.create(a, b, dep(Integer.class));
+        map.put(edge);
+        assertThat(map.snapshot().get(a), contains(edge));
+        assertThat(map.snapshot(), sameInstance(map.snapshot()));
+
+        SetMultimap<DAGNode<Component, Dependency>, DAGEdge<Component, Dependency>> old = map.snapshot();
+        // adding an existing edge does not change the map
+        map.put(edge);
+        assertThat(map.snapshot(), sameInstance(old));
+        map.put(DAGEdge.create(b, a, dep(String.class)));
+        assertThat(map.snapshot(), not(sameInstance(old)));
+        assertThat(map.snapshot().size(), equalTo(2));
+        assertThat(old.size(), equalTo(1));
+    }
+
+    @Test
+    public void testReplaceNodes() {
+        BackEdgeMap map = new BackEdgeMap();
+        DAGNode<Component, Dependency> a = node(String.class);
+        DAGNode<Component, Dependency> b = node(Integer.class);
+        DAGNode<Component, Dependency> c = node(Long.class);
+        DAGEdge<Component, Dependency> ab = DAGEdge.create(a, b, dep(Integer.class));
+        DAGEdge<Component, Dependency> ca = DAGEdge.create(c, a, dep(String.class));
+        map.put(ab);
+        map.put(ca);
+
+        DAGNode<Component, Dependency> a2 = node(CharSequence.class);
+        map.replaceNodes(ImmutableMap.of(a, a2));
+        assertThat(map.get(a), hasSize(0));
+        assertThat(map.get(a2), contains(DAGEdge.create(a2, b, dep(Integer.class))));
+        assertThat(map.get(c), contains(DAGEdge.create(c, a2, dep(String.class))));
+        assertThat(map.snapshot().size(), equalTo(2));
+        assertThat(map.get(a2, Desires.create(null, Integer.class, false)).getTail(), equalTo(b));
+        assertThat(map.get(a, Desires.create(null, Integer.class, false)), nullValue());
+        assertThat(map.get(c, Desires.create(null, String.class, false)).getTail(), equalTo(a2));
+        assertThat(map.get(c, Desires.create(null, Integer.class, false)), nullValue());
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.solver;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.SetMultimap;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class PersistentSetMultimapTest {
+    /**
+     * Key with a chosen hash code, to force trie collisions.
+     */
+    private static final class Key {
+        final int id;
+        final int hash;
+
+        Key(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return "key " + id;
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        PersistentSetMultimap<String,String> map = PersistentSetMultimap.of();
+        assertThat(map.isEmpty(), equalTo(true));
+        assertThat(map.get("foo"), hasSize(0));
+        assertThat(map.with("foo", ImmutableSet.<String>of()), sameInstance(map));
+    }
+
+    @Test
+    public void testOldVersionsUnchanged() {
+        PersistentSetMultimap<String,String> v1 = PersistentSetMultimap.<String,String>of()
+                                                                        .with("a", ImmutableSet.of("x"));
+        PersistentSetMultimap<String,String> v2 = v1.with("b", ImmutableSet.of("y", "z"));
+        PersistentSetMultimap<String,String> v3 = v2.with("a", ImmutableSet.<String>of());
+        assertThat(v1.size(), equalTo(1));
+        assertThat(v1.containsKey("b"), equalTo(false));
+        assertThat(v2.size(), equalTo(3));
+        assertThat(v2.get("a"), contains("x"));
+        assertThat(v3.size(), equalTo(2));
+        assertThat(v3.containsKey("a"), equalTo(false));
+        assertThat(v3.get("b"), containsInAnyOrder("y", "z"));
+    }
+
+    @Test
+    public void testMatchesHashMultimap() {
+        Random rng = new Random(42);
+        List<Key> keys = new ArrayList<Key>();
+        for (int i = 0; i < 500; i++) {
+            // few distinct hashes, so many keys collide or share trie prefixes
+            keys.add(new Key(i, rng.nextInt(64) << rng.nextInt(28)));
+        }
+        SetMultimap<Key,Integer> expected = HashMultimap.create();
+        PersistentSetMultimap<Key,Integer> map = PersistentSetMultimap.of();
+        for (int step = 0; step < 5000; step++) {
+            Key key = keys.get(rng.nextInt(keys.size()));
+            ImmutableSet.Builder<Integer> values = ImmutableSet.builder();
+            if (rng.nextInt(3) > 0) {
+                for (int j = rng.nextInt(4); j >= 0; j--) {
+                    values.add(rng.nextInt(10));
+                }
+            }
+            ImmutableSet<Integer> vs = values.build();
+            expected.replaceValues(key, vs);
+            map = map.with(key, vs);
+            assertThat(map.size(), equalTo(expected.size()));
+            assertThat(map.get(key), equalTo(expected.get(key)));
+        }
+        for (Key key: keys) {
+            assertThat(map.get(key), equalTo(expected.get(key)));
+        }
+        assertThat(map.keySet(), equalTo(expected.keySet()));
+        assertThat(map, equalTo((Object) expected));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.synthetic;
+
+import org.grouplens.grapht.Module;
+
+/**
+ * A family of generated component classes, with the module that configures them.
+ *
+ * @see SyntheticGraphGenerator
+ */
+public class SyntheticGraph {
+    private final ClassLoader classLoader;
+    private final Class<?> rootType;
+    private final Module module;
+    private final int componentCount;
+
+    SyntheticGraph(ClassLoader loader, Class<?> root, Module mod, int count) {
+        classLoader = loader;
+        rootType = root;
+        module = mod;
+        componentCount = count;
+    }
+
+    /**
+     * Get the class loader holding the generated classes.  Injectors for this graph should use it,
+     * e.g. via {@link org.grouplens.grapht.InjectorBuilder#create(ClassLoader, Module...)}.
+     * @return The class loader.
+     */
+    public ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    /**
+     * Get the root component type, which depends (transitively) on every bound component.
+     * @return The root type.
+     */
+    public Class<?> getRootType() {
+        return rootType;
+    }
+
+    /**
+     * Get the module binding the generated interfaces to their implementations.
+     * @return The module.
+     */
+    public Module getModule() {
+        return module;
+    }
+
+    /**
+     * Get the number of component classes instantiated to build the root without context-specific
+     * bindings: the root plus one implementation for each generated interface.
+     * @return The number of components.
+     */
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /**
+     * Load one of the generated classes.
+     * @param name The simple name of the class (e.g. {@code C1_0}).
+     * @return The class.
+     */
+    public Class<?> getGeneratedClass(String name) {
+        return SyntheticGraphGenerator.load(classLoader, name);
+    }
+}
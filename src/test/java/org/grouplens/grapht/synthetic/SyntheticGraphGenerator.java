@@ -0,0 +1,345 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.synthetic;
+
+import org.grouplens.grapht.Binding;
+import org.grouplens.grapht.Context;
+import org.grouplens.grapht.Module;
+
+import javax.inject.Inject;
+import javax.tools.*;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.*;
+
+/**
+ * Generates families of injectable classes for stress tests and benchmarks.  The generated
+ * component graph has {@code depth} levels of {@code fanOut} interfaces each; every implementation
+ * depends on all interfaces of the next level, and a root class depends on the first level.  The
+ * generator also produces a {@link Module} binding each interface to its implementation.
+ * <p>
+ * Generated classes are compiled in memory with the system Java compiler, so this requires a JDK.
+ * For level {@code L} and index {@code i}, the generated classes are:
+ * <ul>
+ * <li>{@code I<L>_<i>}, the interface, which extends {@code hierarchyWidth} super-interfaces
+ * {@code S<L>_<i>_<k>};</li>
+ * <li>{@code C<L>_<i>}, its default implementation;</li>
+ * <li>{@code A<L>_<i>}, an alternate implementation, if context-specific bindings are generated;</li>
+ * <li>{@code Q<L>}, a qualifier used on all injection points of level {@code L}, if qualifiers
+ * are enabled.</li>
+ * </ul>
+ * Context-specific bindings bind an interface to its alternate implementation within one of the
+ * implementations of the previous level.
+ */
+public class SyntheticGraphGenerator {
+    static final String PACKAGE = "org.grouplens.grapht.synthetic.generated";
+
+    private int depth = 3;
+    private int fanOut = 2;
+    private int hierarchyWidth = 0;
+    private boolean qualified = false;
+    private int contextBindings = 0;
+
+    /**
+     * Set the number of levels of interfaces below the root.
+     * @param d The depth (at least 1).
+     * @return The generator (for chaining).
+     */
+    public SyntheticGraphGenerator setDepth(int d) {
+        if (d < 1) {
+            throw new IllegalArgumentException("depth must be at least 1");
+        }
+        depth = d;
+        return this;
+    }
+
+    /**
+     * Set the number of interfaces per level, which is also the number of dependencies of each
+     * component.
+     * @param n The fan-out (at least 1).
+     * @return The generator (for chaining).
+     */
+    public SyntheticGraphGenerator setFanOut(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("fan-out must be at least 1");
+        }
+        fanOut = n;
+        return this;
+    }
+
+    /**
+     * Set the number of super-interfaces each generated interface extends.  These enlarge the
+     * binding rule sets, as bindings are generated for each supertype.
+     * @param w The number of super-interfaces.
+     * @return The generator (for chaining).
+     */
+    public SyntheticGraphGenerator setHierarchyWidth(int w) {
+        if (w < 0) {
+            throw new IllegalArgumentException("negative hierarchy width");
+        }
+        hierarchyWidth = w;
+        return this;
+    }
+
+    /**
+     * Set whether injection points and bindings use generated qualifiers.
+     * @param q {@code true} to qualify dependencies.
+     * @return The generator (for chaining).
+     */
+    public SyntheticGraphGenerator setQualified(boolean q) {
+        qualified = q;
+        return this;
+    }
+
+    /**
+     * Set the number of context-specific bindings to generate.  Requires a depth of at least 2.
+     * @param n The number of context-specific bindings.
+     * @return The generator (for chaining).
+     */
+    public SyntheticGraphGenerator setContextBindings(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("negative context binding count");
+        }
+        contextBindings = n;
+        return this;
+    }
+
+    /**
+     * Generate and load the classes.
+     * @return The generated graph.
+     */
+    public SyntheticGraph generate() {
+        if (contextBindings > 0 && depth < 2) {
+            throw new IllegalStateException("context-specific bindings require depth of at least 2");
+        }
+        Map<String, String> sources = new LinkedHashMap<String, String>();
+        for (int level = 0; level < depth; level++) {
+            if (qualified) {
+                sources.put("Q" + level, qualifierSource(level));
+            }
+            for (int i = 0; i < fanOut; i++) {
+                for (int k = 0; k < hierarchyWidth; k++) {
+                    sources.put(superName(level, i, k), "public interface " + superName(level, i, k) + " {}");
+                }
+                sources.put(ifaceName(level, i), interfaceSource(level, i));
+                sources.put("C" + level + "_" + i, componentSource("C" + level + "_" + i, level, i));
+                if (contextBindings > 0) {
+                    sources.put("A" + level + "_" + i, componentSource("A" + level + "_" + i, level, i));
+                }
+            }
+        }
+        sources.put("Root", componentSource("Root", -1, -1));
+
+        ClassLoader loader = compile(sources);
+        return new SyntheticGraph(loader, load(loader, "Root"),
+                                  new GeneratedModule(loader),
+                                  depth * fanOut + 1);
+    }
+
+    /**
+     * Load a generated class.
+     * @param loader The class loader from {@link #generate()}.
+     * @param name The simple name of the class.
+     * @return The class.
+     */
+    static Class<?> load(ClassLoader loader, String name) {
+        try {
+            return loader.loadClass(PACKAGE + "." + name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("no generated class " + name, e);
+        }
+    }
+
+    private String ifaceName(int level, int i) {
+        return "I" + level + "_" + i;
+    }
+
+    private String superName(int level, int i, int k) {
+        return "S" + level + "_" + i + "_" + k;
+    }
+
+    private String qualifierSource(int level) {
+        return "@javax.inject.Qualifier\n"
+                + "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)\n"
+                + "public @interface Q" + level + " {}";
+    }
+
+    private String interfaceSource(int level, int i) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("public interface ").append(ifaceName(level, i));
+        for (int k = 0; k < hierarchyWidth; k++) {
+            sb.append(k == 0 ? " extends " : ", ").append(superName(level, i, k));
+        }
+        return sb.append(" {}").toString();
+    }
+
+    /**
+     * Generate a component at a level, depending on every interface of the next level.
+     */
+    private String componentSource(String name, int level, int i) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("public class ").append(name);
+        if (level >= 0) {
+            sb.append(" implements ").append(ifaceName(level, i));
+        }
+        sb.append(" {\n    @javax.inject.Inject\n    public ").append(name).append("(");
+        int next = level + 1;
+        if (next < depth) {
+            for (int j = 0; j < fanOut; j++) {
+                if (j > 0) {
+                    sb.append(", ");
+                }
+                if (qualified) {
+                    sb.append("@Q").append(next).append(' ');
+                }
+                sb.append(ifaceName(next, j)).append(" d").append(j);
+            }
+        }
+        return sb.append(") {}\n}").toString();
+    }
+
+    private ClassLoader compile(Map<String, String> sources) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("no Java compiler available; a JDK is required");
+        }
+        List<JavaFileObject> units = new ArrayList<JavaFileObject>();
+        for (Map.Entry<String, String> e: sources.entrySet()) {
+            units.add(new SourceFile(e.getKey(), "package " + PACKAGE + ";\n" + e.getValue()));
+        }
+        final Map<String, ByteArrayOutputStream> classes = new HashMap<String, ByteArrayOutputStream>();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        List<String> options = Arrays.asList("-classpath", classPathOf(Inject.class));
+        StandardJavaFileManager std = compiler.getStandardFileManager(null, null, null);
+        try (JavaFileManager files = new ForwardingJavaFileManager<StandardJavaFileManager>(std) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String className,
+                                                       JavaFileObject.Kind kind, FileObject sibling) {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                classes.put(className, out);
+                return new SimpleJavaFileObject(uri(className, kind), kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        return out;
+                    }
+                };
+            }
+        }) {
+            if (!compiler.getTask(null, files, diagnostics, options, null, units).call()) {
+                throw new IllegalStateException("generated classes failed to compile: " + diagnostics.getDiagnostics());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot close compiler file manager", e);
+        }
+
+        final Map<String, byte[]> bytes = new HashMap<String, byte[]>();
+        for (Map.Entry<String, ByteArrayOutputStream> e: classes.entrySet()) {
+            bytes.put(e.getKey(), e.getValue().toByteArray());
+        }
+        return new ClassLoader(SyntheticGraphGenerator.class.getClassLoader()) {
+            @Override
+            protected Class<?> findClass(String name) throws ClassNotFoundException {
+                byte[] data = bytes.get(name);
+                if (data == null) {
+                    throw new ClassNotFoundException(name);
+                }
+                return defineClass(name, data, 0, data.length);
+            }
+        };
+    }
+
+    private static String classPathOf(Class<?> type) {
+        try {
+            return new File(type.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("cannot locate " + type, e);
+        }
+    }
+
+    private static URI uri(String name, JavaFileObject.Kind kind) {
+        return URI.create("mem:///" + name.replace('.', '/') + kind.extension);
+    }
+
+    private static class SourceFile extends SimpleJavaFileObject {
+        private final String code;
+
+        SourceFile(String name, String code) {
+            super(uri(PACKAGE + "." + name, Kind.SOURCE), Kind.SOURCE);
+            this.code = code;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return code;
+        }
+    }
+
+    /**
+     * Module configuring a generated graph.
+     */
+    private class GeneratedModule implements Module {
+        private final ClassLoader loader;
+        // copy the settings, so later changes to the generator do not affect the module
+        private final int depth = SyntheticGraphGenerator.this.depth;
+        private final int fanOut = SyntheticGraphGenerator.this.fanOut;
+        private final boolean qualified = SyntheticGraphGenerator.this.qualified;
+        private final int contextBindings = SyntheticGraphGenerator.this.contextBindings;
+
+        GeneratedModule(ClassLoader cl) {
+            loader = cl;
+        }
+
+        @Override
+        public void configure(Context ctx) {
+            for (int level = 0; level < depth; level++) {
+                for (int i = 0; i < fanOut; i++) {
+                    bind(ctx, level, i, "C");
+                }
+            }
+            for (int n = 0; n < contextBindings; n++) {
+                int level = 1 + n % (depth - 1);
+                int i = (n / (depth - 1)) % fanOut;
+                Class<?> outer = load(loader, "C" + (level - 1) + "_" + (n % fanOut));
+                bind(ctx.within(outer), level, i, "A");
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private void bind(Context ctx, int level, int i, String prefix) {
+            Class iface = load(loader, ifaceName(level, i));
+            Binding binding = ctx.bind(iface);
+            if (qualified) {
+                binding = binding.withQualifier((Class<? extends Annotation>) load(loader, "Q" + level));
+            }
+            binding.to(load(loader, prefix + level + "_" + i));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.synthetic;
+
+import org.grouplens.grapht.Component;
+import org.grouplens.grapht.Dependency;
+import org.grouplens.grapht.Injector;
+import org.grouplens.grapht.InjectorBuilder;
+import org.grouplens.grapht.graph.DAGNode;
+import org.grouplens.grapht.solver.DefaultInjector;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+public class SyntheticGraphGeneratorTest {
+    private static Set<DAGNode<Component, Dependency>> build(SyntheticGraph graph) throws Exception {
+        Injector inj = InjectorBuilder.create(graph.getClassLoader(), graph.getModule()).build();
+        Object root = inj.getInstance(graph.getRootType());
+        assertThat(root, instanceOf(graph.getRootType()));
+        return ((DefaultInjector) inj).getSolver().getGraph().getReachableNodes();
+    }
+
+    private static Set<Class<?>> types(Set<DAGNode<Component, Dependency>> nodes) {
+        return nodes.stream()
+                    .map(n -> n.getLabel().getSatisfaction().getErasedType())
+                    .collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testGenerateSimpleGraph() throws Exception {
+        SyntheticGraph graph = new SyntheticGraphGenerator().setDepth(3).setFanOut(2).generate();
+        assertThat(graph.getComponentCount(), equalTo(7));
+        Set<DAGNode<Component, Dependency>> nodes = build(graph);
+        // the components and the solver's synthetic root
+        assertThat(nodes, hasSize(graph.getComponentCount() + 1));
+        assertThat(types(nodes), hasItem(graph.getGeneratedClass("C2_1")));
+    }
+
+    @Test
+    public void testQualifiedHierarchy() throws Exception {
+        SyntheticGraph graph = new SyntheticGraphGenerator().setDepth(2)
+                                                            .setFanOut(3)
+                                                            .setHierarchyWidth(2)
+                                                            .setQualified(true)
+                                                            .generate();
+        assertThat(graph.getGeneratedClass("S1_2_1").isAssignableFrom(graph.getGeneratedClass("C1_2")),
+                   equalTo(true));
+        assertThat(build(graph), hasSize(graph.getComponentCount() + 1));
+    }
+
+    @Test
+    public void testContextBindings() throws Exception {
+        SyntheticGraph graph = new SyntheticGraphGenerator().setDepth(2)
+                                                            .setFanOut(2)
+                                                            .setContextBindings(1)
+                                                            .generate();
+        Set<DAGNode<Component, Dependency>> nodes = build(graph);
+        // C0_0 gets the alternate implementation of I1_0, C0_1 the default
+        assertThat(types(nodes), hasItems(graph.getGeneratedClass("A1_0"),
+                                          graph.getGeneratedClass("C1_0")));
+        DAGNode<Component, Dependency> c00 =
+                nodes.stream()
+                     .filter(n -> n.getLabel().getSatisfaction().getErasedType()
+                                   .equals(graph.getGeneratedClass("C0_0")))
+                     .findFirst()
+                     .get();
+        assertThat(types(c00.getAdjacentNodes()), containsInAnyOrder(graph.getGeneratedClass("A1_0"),
+                                                                     graph.getGeneratedClass("C1_1")));
+    }
+
+    @Test
+    public void testLargerGraph() throws Exception {
+        SyntheticGraph graph = new SyntheticGraphGenerator().setDepth(6)
+                                                            .setFanOut(5)
+                                                            .setHierarchyWidth(3)
+                                                            .setQualified(true)
+                                                            .setContextBindings(10)
+                                                            .generate();
+        assertThat(build(graph).size(), greaterThan(graph.getComponentCount()));
+    }
+}
@@ -234,6 +234,37 @@ public class AnnotationBuilderTest {
         Assert.assertFalse(jvmA4a1.equals(notEqual));
         Assert.assertFalse(jvmA4a1.hashCode() == notEqual.hashCode());
     }
+
+    @Test
+    public void testEqualBuiltAnnotationsShared() {
+        // verify that equal built annotations are interned, even when one
+        // spells out a default value and the other relies on it
+        A3 a = new AnnotationBuilder<A3>(A3.class).set("otherValue", new double[] { 1.0 })
+                                                  .build();
+        A3 b = new AnnotationBuilder<A3>(A3.class).set("value", "hello")
+                                                  .set("otherValue", new double[] { 1.0 })
+                                                  .build();
+        Assert.assertSame(a, b);
+        Assert.assertEquals(a.hashCode(), b.hashCode());
+    }
+
+    @Test
+    public void testProxyEqualityUsesValues() {
+        // verify that comparing two built annotations compares their values,
+        // including array contents and defaults
+        A3 a = new AnnotationBuilder<A3>(A3.class).set("otherValue", new double[] { 1.0, 2.0 })
+                                                  .build();
+        A3 other = new AnnotationBuilder<A3>(A3.class).set("otherValue", new double[] { 1.0, 3.0 })
+                                                      .build();
+        A3 renamed = new AnnotationBuilder<A3>(A3.class).set("value", "world")
+                                                        .set("otherValue", new double[] { 1.0, 2.0 })
+                                                        .build();
+        Assert.assertFalse(a.equals(other));
+        Assert.assertFalse(other.equals(a));
+        Assert.assertFalse(a.equals(renamed));
+        Assert.assertFalse(a.equals(null));
+        Assert.assertEquals(a.hashCode(), a.hashCode());
+    }
     
     private static final A1 jvmA1a1;
     private static final A2 jvmA2a1;
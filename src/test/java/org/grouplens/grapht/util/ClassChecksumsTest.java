@@ -0,0 +1,62 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Properties;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class ClassChecksumsTest {
+    @Test
+    public void testChecksumStable() {
+        assertThat(ClassChecksums.getChecksum(ArrayList.class),
+                   equalTo(ClassChecksums.getChecksum(ArrayList.class)));
+        assertThat(ClassChecksums.getChecksum(ArrayList.class),
+                   not(equalTo(ClassChecksums.getChecksum(String.class))));
+    }
+
+    @Test
+    public void testWriteChecksums() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ClassChecksums.writeChecksums(Arrays.asList(String.class, ArrayList.class), out);
+
+        Properties props = new Properties();
+        props.load(new ByteArrayInputStream(out.toByteArray()));
+        assertThat(props.stringPropertyNames(),
+                   containsInAnyOrder("java.lang.String", "java.util.ArrayList"));
+        assertThat(Long.parseLong(props.getProperty("java.lang.String")),
+                   equalTo(ClassChecksums.getChecksum(String.class)));
+        assertThat(Long.parseLong(props.getProperty("java.util.ArrayList")),
+                   equalTo(ClassChecksums.getChecksum(ArrayList.class)));
+    }
+}
@@ -28,14 +28,38 @@ import org.apache.commons.lang3.SerializationUtils;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Array;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.List;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 @SuppressWarnings("rawtypes")
 public class ClassProxyTest {
+    @Test
+    public void testCachedProxyDoesNotRetainContextLoader() throws Exception {
+        class Probe {}
+        ClassLoader loader = new URLClassLoader(new URL[0]);
+        WeakReference<ClassLoader> ref = new WeakReference<ClassLoader>(loader);
+        ClassLoaderContext ctx = ClassLoaders.pushContext(loader);
+        try {
+            assertThat(ClassProxy.of(Probe.class).resolve(), equalTo((Class) Probe.class));
+        } finally {
+            ctx.pop();
+        }
+        loader = null;
+        for (int i = 0; i < 50 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertThat(ref.get(), nullValue());
+    }
+
     @Test
     public void testBasicProxy() throws ClassNotFoundException {
         ClassProxy proxy = ClassProxy.of(String.class);
@@ -113,4 +137,16 @@ public class ClassProxyTest {
         // and test the hash code
         assertThat(equal.hashCode(), equalTo(proxy.hashCode()));
     }
+
+    @Test
+    public void testProxyShared() {
+        assertThat(ClassProxy.of(String.class), sameInstance(ClassProxy.of(String.class)));
+    }
+
+    @Test
+    public void testSerializeTwice() throws ClassNotFoundException {
+        // the lazily-computed checksum must survive a second round trip
+        ClassProxy proxy = SerializationUtils.clone(SerializationUtils.clone(ClassProxy.of(List.class)));
+        assertThat(proxy.resolve(), equalTo((Class) List.class));
+    }
 }
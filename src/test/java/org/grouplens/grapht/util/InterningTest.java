@@ -0,0 +1,80 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.util;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.grouplens.grapht.CachePolicy;
+import org.grouplens.grapht.Component;
+import org.grouplens.grapht.reflect.Desire;
+import org.grouplens.grapht.reflect.Desires;
+import org.grouplens.grapht.reflect.internal.ClassSatisfaction;
+import org.grouplens.grapht.reflect.internal.ReflectionDesire;
+import org.grouplens.grapht.reflect.internal.types.TypeC;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class InterningTest {
+    @Test
+    public void testInternString() {
+        String a = new String("wombat");
+        String b = new String("wombat");
+        assertThat(Interning.intern(a), sameInstance(a));
+        assertThat(Interning.intern(b), sameInstance(a));
+    }
+
+    @Test
+    public void testDesiresInterned() {
+        Desire d1 = Desires.create(null, String.class, false);
+        Desire d2 = Desires.create(null, String.class, false);
+        assertThat(d2, sameInstance(d1));
+        assertThat(d1.getInjectionPoint(), sameInstance(d2.getInjectionPoint()));
+        assertThat(Desires.create(null, String.class, true), not(sameInstance(d1)));
+    }
+
+    @Test
+    public void testReflectedDesiresInterned() {
+        List<Desire> first = ReflectionDesire.getDesires(TypeC.class);
+        List<Desire> second = ReflectionDesire.getDesires(TypeC.class);
+        assertThat(first, hasSize(second.size()));
+        for (int i = 0; i < first.size(); i++) {
+            assertThat(second.get(i), sameInstance(first.get(i)));
+            assertThat(second.get(i).getInjectionPoint(), sameInstance(first.get(i).getInjectionPoint()));
+        }
+    }
+
+    @Test
+    public void testComponentsInterned() {
+        Component c1 = Component.create(new ClassSatisfaction(TypeC.class), CachePolicy.MEMOIZE);
+        Component c2 = Component.create(new ClassSatisfaction(TypeC.class), CachePolicy.MEMOIZE);
+        assertThat(c2, sameInstance(c1));
+        assertThat(Component.create(new ClassSatisfaction(TypeC.class), CachePolicy.NEW_INSTANCE),
+                   not(sameInstance(c1)));
+        assertThat(SerializationUtils.clone(c1), sameInstance(c1));
+    }
+}
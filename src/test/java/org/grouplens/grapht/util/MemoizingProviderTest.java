@@ -0,0 +1,68 @@
+/*
+ * Grapht, an open source dependency injector.
+ * Copyright 2014-2017 various contributors (see CONTRIBUTORS.txt)
+ * Copyright 2010-2014 Regents of the University of Minnesota
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.grouplens.grapht.util;
+
+import org.junit.Test;
+
+import javax.inject.Provider;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class MemoizingProviderTest {
+    @Test
+    public void testMemoizesValue() {
+        Counting<String> counting = new Counting<String>("wombat");
+        MemoizingProvider<String> provider = new MemoizingProvider<String>(counting);
+        assertThat(provider.get(), equalTo("wombat"));
+        assertThat(provider.get(), equalTo("wombat"));
+        assertThat(counting.calls.get(), equalTo(1));
+    }
+
+    @Test
+    public void testMemoizesNull() {
+        Counting<String> counting = new Counting<String>(null);
+        MemoizingProvider<String> provider = new MemoizingProvider<String>(counting);
+        assertThat(provider.get(), nullValue());
+        assertThat(provider.get(), nullValue());
+        assertThat(counting.calls.get(), equalTo(1));
+    }
+
+    private static class Counting<T> implements Provider<T> {
+        private final T value;
+        final AtomicInteger calls = new AtomicInteger();
+
+        Counting(T v) {
+            value = v;
+        }
+
+        @Override
+        public T get() {
+            calls.incrementAndGet();
+            return value;
+        }
+    }
+}